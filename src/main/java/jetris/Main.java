@@ -1,33 +1,217 @@
 package jetris;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.management.JMException;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
+import jetris.leaderboard.HighScore;
+import jetris.leaderboard.Leaderboard;
 import jetris.model.GameController;
+import jetris.model.GameLoop;
 import jetris.model.GameModel;
+import jetris.model.GameModel.GameState;
 import jetris.model.GameModelListener;
 import jetris.model.PeriodicGameClock;
 import jetris.view.GameView;
+import jetris.view.GameView.Rendering;
 
 public class Main implements GameModelListener {
 
-    private GameView view;
+    private static final String GAME_LOOP_OPTION = "--game-loop";
+
+    private static final String ACTIVE_RENDERING_OPTION = "--active-rendering";
+
+    private static final String LATENCY_REPORT_OPTION = "--latency-report=";
+
+    private static final String LEADERBOARD_OPTION = "--leaderboard=";
+
+    private static final String BOARD_OPTION = "--board=";
+
+    private static final int LEADERBOARD_CAPACITY = 100;
+
+    private static final int UPDATES_PER_SECOND = 120;
+
+    private static final int FRAMES_PER_SECOND = 60;
+
+    private final AtomicReference<GameModel> publishedModel = new AtomicReference<>();
+
+    private final boolean isGameLoop;
+
+    private final Rendering rendering;
+
+    private volatile GameView view;
+
+    private Leaderboard leaderboard;
+
+    private int boardWidth = GameModel.DEFAULT_WIDTH;
+
+    private int boardHeight = GameModel.DEFAULT_HEIGHT;
+
+    private final AtomicReference<GameState> lastState = new AtomicReference<>();
+
+    /*
+     * High scores are written to the leaderboard file here, rather than on
+     * the thread that ticks the game
+     */
+    private final ExecutorService leaderboardWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public static void main(String[] args) {
-        new Main().playGame();
+        List<String> options = Arrays.asList(args);
+        Main main = new Main(options.contains(GAME_LOOP_OPTION),
+                             options.contains(ACTIVE_RENDERING_OPTION) ? Rendering.ACTIVE : Rendering.PASSIVE);
+        for (String option : options) {
+            if (option.startsWith(LATENCY_REPORT_OPTION)) {
+                main.reportLatencyOnExit(Paths.get(option.substring(LATENCY_REPORT_OPTION.length())));
+            }
+            if (option.startsWith(BOARD_OPTION)) {
+                main.sizeBoard(option.substring(BOARD_OPTION.length()));
+            }
+            if (option.startsWith(LEADERBOARD_OPTION)) {
+                main.recordHighScores(Paths.get(option.substring(LEADERBOARD_OPTION.length())));
+            }
+        }
+        main.playGame();
+    }
+
+    private Main(boolean isGameLoop, Rendering rendering) {
+        this.isGameLoop = isGameLoop;
+        this.rendering = rendering;
+    }
+
+    private void reportLatencyOnExit(final Path report) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (view != null) {
+                try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+                    view.inputTracer().export(writer);
+                } catch (IOException e) {
+                    System.err.println("Unable to write latency report: " + e);
+                }
+            }
+        }));
+    }
+
+    /*
+     * e.g. 10x17 for 10 columns by 17 rows, keeping the default size if
+     * not of that form or too small
+     */
+    private void sizeBoard(String size) {
+        String[] dimensions = size.split("x", -1);
+        try {
+            if (dimensions.length == 2) {
+                int width = Integer.parseInt(dimensions[0]);
+                int height = Integer.parseInt(dimensions[1]);
+                if ((width >= GameModel.MIN_WIDTH) && (height >= GameModel.MIN_HEIGHT)) {
+                    boardWidth = width;
+                    boardHeight = height;
+                    return;
+                }
+            }
+        } catch (NumberFormatException e) {
+            // not a number
+        }
+        System.err.println("Unable to size board " + size + ": use " + BOARD_OPTION + "WIDTHxHEIGHT, at least "
+                           + GameModel.MIN_WIDTH + "x" + GameModel.MIN_HEIGHT);
+    }
+
+    private void recordHighScores(Path file) {
+        try {
+            leaderboard = Leaderboard.open(file, LEADERBOARD_CAPACITY);
+        } catch (IOException e) {
+            System.err.println("Unable to open leaderboard: " + e);
+        }
+    }
+
+    private void submitHighScore(GameModel model) {
+        int score = model.score();
+        int lines = model.lines();
+        int level = model.level();
+        leaderboardWriter.execute(() -> {
+            try {
+                HighScore highScore = leaderboard.submit(System.getProperty("user.name"), score, lines, level);
+                int rank = leaderboard.rank(highScore);
+                if (rank > 0) {
+                    System.out.println("High score " + highScore.score() + " ranked " + rank);
+                }
+            } catch (IOException e) {
+                System.err.println("Unable to record high score: " + e);
+            }
+        });
     }
 
     private void playGame() {
-        final GameController controller = new GameController(this, new PeriodicGameClock());
-        createViewOnEventDispatchThread(controller);
+        if (isGameLoop) {
+            playGameLoop();
+        } else {
+            final GameController controller = new GameController(this, new PeriodicGameClock(), boardWidth, boardHeight);
+            registerMBean(controller);
+            createViewOnEventDispatchThread(controller);
+        }
+    }
+
+    /*
+     * The model is advanced on the game loop thread whilst the view is
+     * rendered on the event dispatch thread at the display rate from
+     * the most recently published model.
+     */
+    private void playGameLoop() {
+        final GameLoop loop = new GameLoop(UPDATES_PER_SECOND);
+        final GameController controller = new GameController(this, loop, boardWidth, boardHeight);
+        registerMBean(controller);
+        SwingUtilities.invokeLater(() -> {
+            view = new GameView(controller, loop, rendering);
+            new Timer(1000 / FRAMES_PER_SECOND, event -> renderPublishedModel()).start();
+            loop.begin();
+        });
+    }
+
+    private static void registerMBean(GameController controller) {
+        try {
+            controller.registerMBean();
+        } catch (JMException e) {
+            System.err.println("Unable to register game controller MBean: " + e);
+        }
     }
 
     private void createViewOnEventDispatchThread(final GameController controller) {
-        SwingUtilities.invokeLater(() -> view = new GameView(controller));
+        SwingUtilities.invokeLater(() -> view = new GameView(controller, Runnable::run, rendering));
+    }
+
+    private void renderPublishedModel() {
+        GameModel model = publishedModel.getAndSet(null);
+        if (model != null) {
+            view.modelChanged(model);
+        }
     }
 
     @Override
     public void modelChanged(final GameModel context) {
         assert view != null;
+        view.frameMetrics().modelChanged();
+        view.inputTracer().modelChanged();
+        GameState previousState = lastState.getAndSet(context.state());
+        if ((leaderboard != null) && (context.state() == GameState.ENDED) && (previousState != GameState.ENDED)) {
+            submitHighScore(context);
+        }
+        if (isGameLoop) {
+            publishedModel.set(context);
+            return;
+        }
         if (SwingUtilities.isEventDispatchThread()) {
             view.modelChanged(context);
         } else {
@@ -0,0 +1,65 @@
+package jetris.leaderboard;
+
+import java.util.Comparator;
+
+/**
+ * The final score of a game played by a player, as recorded on a
+ * {@link Leaderboard}
+ */
+public final class HighScore {
+
+    /**
+     * Highest score first, then by earliest submission
+     */
+    static final Comparator<HighScore> RANKING = Comparator.comparingInt(HighScore::score)
+                                                           .reversed()
+                                                           .thenComparingLong(HighScore::sequence);
+
+    private final String player;
+    private final int score;
+    private final int lines;
+    private final int level;
+    private final long timestamp;
+    private final long sequence;
+
+    HighScore(String player, int score, int lines, int level, long timestamp, long sequence) {
+        this.player = player;
+        this.score = score;
+        this.lines = lines;
+        this.level = level;
+        this.timestamp = timestamp;
+        this.sequence = sequence;
+    }
+
+    public String player() {
+        return player;
+    }
+
+    public int score() {
+        return score;
+    }
+
+    public int lines() {
+        return lines;
+    }
+
+    public int level() {
+        return level;
+    }
+
+    /**
+     * @return when the score was submitted, in milliseconds since the epoch
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    @Override
+    public String toString() {
+        return player + " " + score + " (lines=" + lines + ", level=" + level + ")";
+    }
+}
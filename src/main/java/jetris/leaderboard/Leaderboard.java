@@ -0,0 +1,261 @@
+package jetris.leaderboard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jetris.model.GameModel;
+
+/**
+ * High scores of finished games, ranked highest first.
+ * <p>
+ * Scores are held in a concurrent skip list so that top score and rank
+ * queries never lock, however many parallel sessions are submitting
+ * scores.  Submissions are serialised only to append them to the file.
+ * Only the best {@code capacity} scores are kept.
+ * <p>
+ * Each submission is appended to a file, one line per score, which is
+ * read back when the leaderboard is opened.  As scores that fall off
+ * the leaderboard remain in the file, the file is compacted to just the
+ * scores kept once it has grown to twice the capacity.  A last line torn
+ * by a crash while it was appended is dropped when the file is read back.
+ */
+public class Leaderboard implements Closeable {
+
+    private static final char SEPARATOR = ',';
+
+    private final ConcurrentSkipListSet<HighScore> scores = new ConcurrentSkipListSet<>(HighScore.RANKING);
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final int capacity;
+    private final Path file;
+    private Writer writer;
+    private int appended;
+
+    private Leaderboard(Path file, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Opens the leaderboard persisted in the given file, creating the
+     * file if it does not exist
+     */
+    public static Leaderboard open(Path file, int capacity) throws IOException {
+        Leaderboard leaderboard = new Leaderboard(file, capacity);
+        leaderboard.load();
+        return leaderboard;
+    }
+
+    /**
+     * Records the score of a game, typically once it has ended
+     */
+    public HighScore submit(String player, GameModel model) throws IOException {
+        return submit(player, model.score(), model.lines(), model.level());
+    }
+
+    public HighScore submit(String player, int score, int lines, int level) throws IOException {
+        HighScore highScore = new HighScore(nameOf(player),
+                                            score,
+                                            lines,
+                                            level,
+                                            System.currentTimeMillis(),
+                                            sequence.getAndIncrement());
+        append(highScore);
+        return highScore;
+    }
+
+    /**
+     * @return the best scores, highest first, up to the given number
+     */
+    public List<HighScore> top(int count) {
+        List<HighScore> top = new ArrayList<>(Math.min(count, capacity));
+        for (HighScore highScore : scores) {
+            if (top.size() == count) {
+                break;
+            }
+            top.add(highScore);
+        }
+        return top;
+    }
+
+    /**
+     * @return the position of the given score on the leaderboard,
+     *         starting at 1, or 0 if it is no longer on the leaderboard.
+     *         The scores ahead are counted, so the cost is proportional
+     *         to the rank.
+     */
+    public int rank(HighScore highScore) {
+        if (!scores.contains(highScore)) {
+            return 0;
+        }
+        return scores.headSet(highScore).size() + 1;
+    }
+
+    /**
+     * @return the position a score would take on the leaderboard, were
+     *         it to be submitted now
+     */
+    public int rankOf(int score) {
+        HighScore probe = new HighScore("", score, 0, 0, 0, Long.MAX_VALUE);
+        return scores.headSet(probe).size() + 1;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Rewrites the file with only the scores on the leaderboard.  If that
+     * fails, it is tried again once another capacity of scores has been
+     * appended, rather than on every one.
+     */
+    public synchronized void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try {
+            try (Writer compactWriter = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+                for (HighScore highScore : scores) {
+                    write(highScore, compactWriter);
+                }
+            }
+            writer.close();
+            try {
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                writer = openWriter();
+            }
+            appended = size.get();
+        } catch (IOException e) {
+            appended = capacity;
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private void add(HighScore highScore) {
+        scores.add(highScore);
+        if (size.incrementAndGet() > capacity) {
+            if (scores.pollLast() != null) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private synchronized void append(HighScore highScore) throws IOException {
+        add(highScore);
+        write(highScore, writer);
+        writer.flush();
+        if (++appended >= (2 * capacity)) {
+            compact();
+        }
+    }
+
+    /*
+     * A malformed last line is truncated, so that the next score appended
+     * starts a line of its own, and a well formed one missing its line
+     * feed is ended; a malformed line before the last means the file is
+     * corrupt
+     */
+    private void load() throws IOException {
+        long length = 0;
+        boolean isTerminated = true;
+        if (Files.exists(file)) {
+            byte[] bytes = Files.readAllBytes(file);
+            int start = 0;
+            while (start < bytes.length) {
+                int end = start;
+                while ((end < bytes.length) && (bytes[end] != '\n')) {
+                    end++;
+                }
+                String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+                boolean isLast = (end >= (bytes.length - 1));
+                if (!line.isEmpty()) {
+                    HighScore highScore = parse(line);
+                    if (highScore == null) {
+                        if (!isLast) {
+                            throw new IOException("Malformed high score in " + file + ": " + line);
+                        }
+                        break;
+                    }
+                    add(highScore);
+                    appended++;
+                }
+                length = Math.min(end + 1, bytes.length);
+                isTerminated = (end < bytes.length);
+                start = end + 1;
+            }
+            if (length < bytes.length) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(length);
+                }
+            }
+        }
+        writer = openWriter();
+        if (!isTerminated) {
+            writer.append('\n');
+            writer.flush();
+        }
+    }
+
+    private Writer openWriter() throws IOException {
+        return Files.newBufferedWriter(file,
+                                       StandardCharsets.UTF_8,
+                                       StandardOpenOption.CREATE,
+                                       StandardOpenOption.APPEND);
+    }
+
+    /*
+     * score,lines,level,timestamp,player - the player is last as it may
+     * contain the separator
+     */
+    private static void write(HighScore highScore, Writer writer) throws IOException {
+        writer.append(String.valueOf(highScore.score())).append(SEPARATOR)
+              .append(String.valueOf(highScore.lines())).append(SEPARATOR)
+              .append(String.valueOf(highScore.level())).append(SEPARATOR)
+              .append(String.valueOf(highScore.timestamp())).append(SEPARATOR)
+              .append(highScore.player())
+              .append('\n');
+    }
+
+    /**
+     * @return the high score, or <tt>null</tt> if the line is malformed
+     */
+    private HighScore parse(String line) {
+        String[] fields = line.split(String.valueOf(SEPARATOR), 5);
+        if (fields.length != 5) {
+            return null;
+        }
+        try {
+            return new HighScore(fields[4],
+                                 Integer.parseInt(fields[0]),
+                                 Integer.parseInt(fields[1]),
+                                 Integer.parseInt(fields[2]),
+                                 Long.parseLong(fields[3]),
+                                 sequence.getAndIncrement());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String nameOf(String player) {
+        return player.replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,95 @@
+package jetris.metrics;
+
+/**
+ * Distribution of non-negative values, such as the scores of many games.
+ * <p>
+ * Values are counted in the same log-linear buckets as a
+ * {@link LatencyHistogram}, so memory use is fixed regardless of the
+ * number of values recorded and any percentile is accurate to within
+ * about 6% (values below 16 are exact).  Unlike a latency histogram a
+ * distribution is not thread safe: each thread records into its own
+ * distribution and the distributions are {@link #merge merged} once
+ * recording is complete.
+ */
+public class Distribution {
+
+    private static final int BUCKETS = LatencyHistogram.bucketOf(Long.MAX_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        counts[LatencyHistogram.bucketOf(recorded)]++;
+        count++;
+        sum += recorded;
+        min = Math.min(min, recorded);
+        max = Math.max(max, recorded);
+    }
+
+    /**
+     * Adds the values recorded by another distribution to this one
+     * @return this distribution
+     */
+    public Distribution merge(Distribution other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return (count == 0) ? 0 : (sum / (double) count);
+    }
+
+    public long min() {
+        return (count == 0) ? 0 : min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the value below which the given percentage of recorded
+     *         values fall, or 0 if nothing has been recorded
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil((percentile / 100) * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(LatencyHistogram.midpointOf(i), max));
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1f, min=%d, p50=%d, p90=%d, p99=%d, max=%d",
+                             count,
+                             mean(),
+                             min(),
+                             percentile(50),
+                             percentile(90),
+                             percentile(99),
+                             max);
+    }
+}
@@ -0,0 +1,118 @@
+package jetris.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings of the frames rendered by a view:
+ * <ul>
+ *   <li>how long each frame took to paint</li>
+ *   <li>the delay between the model changing and the view being informed
+ *       on the event dispatch thread</li>
+ *   <li>the delay between the model changing and the change being painted</li>
+ *   <li>the frame rate, and the number of model changes not painted as
+ *       they were coalesced into a later frame</li>
+ * </ul>
+ * Where several changes happen before a frame is painted, latencies are
+ * measured from the earliest of them.
+ */
+public class FrameMetrics {
+
+    private static final double SMOOTHING = 0.1;
+
+    private final LatencyHistogram paintTime = new LatencyHistogram();
+    private final LatencyHistogram eventQueueDelay = new LatencyHistogram();
+    private final LatencyHistogram changeToPaintLatency = new LatencyHistogram();
+    private final LongAdder coalescedChanges = new LongAdder();
+    private final AtomicLong queuedTime = new AtomicLong();
+    private final AtomicLong unpaintedTime = new AtomicLong();
+    private final AtomicLong frames = new AtomicLong();
+    private volatile long lastFrameTime;
+    private volatile double frameInterval;
+
+    /**
+     * Called on the thread that changed the model, before handing the
+     * change to the event dispatch thread
+     */
+    public void modelChanged() {
+        long now = System.nanoTime();
+        queuedTime.compareAndSet(0, now);
+        // an earlier change not yet painted means this one shares its frame
+        if (!unpaintedTime.compareAndSet(0, now)) {
+            coalescedChanges.increment();
+        }
+    }
+
+    /**
+     * Called when the view is informed of a change on the event dispatch
+     * thread
+     */
+    public void modelReceived() {
+        long queued = queuedTime.getAndSet(0);
+        if (queued != 0) {
+            eventQueueDelay.record(System.nanoTime() - queued);
+        }
+    }
+
+    /**
+     * Called after a frame has been painted
+     * @param startTime when painting began, per {@link System#nanoTime()}
+     */
+    public void framePainted(long startTime) {
+        long now = System.nanoTime();
+        paintTime.record(now - startTime);
+        long unpainted = unpaintedTime.getAndSet(0);
+        if (unpainted != 0) {
+            changeToPaintLatency.record(now - unpainted);
+        }
+        if (frames.getAndIncrement() > 0) {
+            long interval = now - lastFrameTime;
+            frameInterval = (frameInterval == 0) ? interval : (frameInterval + (SMOOTHING * (interval - frameInterval)));
+        }
+        lastFrameTime = now;
+    }
+
+    public LatencyHistogram paintTime() {
+        return paintTime;
+    }
+
+    public LatencyHistogram eventQueueDelay() {
+        return eventQueueDelay;
+    }
+
+    public LatencyHistogram changeToPaintLatency() {
+        return changeToPaintLatency;
+    }
+
+    public long frames() {
+        return frames.get();
+    }
+
+    /**
+     * @return the number of model changes that were not painted in a
+     *         frame of their own
+     */
+    public long coalescedChanges() {
+        return coalescedChanges.sum();
+    }
+
+    /**
+     * @return the recent rate at which frames have been painted
+     */
+    public double framesPerSecond() {
+        double interval = frameInterval;
+        return (interval == 0) ? 0 : (TimeUnit.SECONDS.toNanos(1) / interval);
+    }
+
+    public void reset() {
+        paintTime.reset();
+        eventQueueDelay.reset();
+        changeToPaintLatency.reset();
+        coalescedChanges.reset();
+        queuedTime.set(0);
+        unpaintedTime.set(0);
+        frames.set(0);
+        frameInterval = 0;
+    }
+}
@@ -0,0 +1,18 @@
+package jetris.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jetris.GravityTick")
+@Label("Gravity Tick")
+@Category("Jetris")
+@Description("Gravity moving the active tetromino down, including informing the model listener")
+@StackTrace(false)
+public class GravityTickEvent extends jdk.jfr.Event {
+
+    @Label("Level")
+    public int level;
+}
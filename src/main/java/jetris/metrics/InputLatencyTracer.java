@@ -0,0 +1,150 @@
+package jetris.metrics;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traces key presses through the game, recording the latency of each
+ * stage between the key being pressed and its effect being painted.
+ * <p>
+ * The command a key press triggers is wrapped by {@link #trace}, which
+ * makes the trace current on whichever thread executes the command.  The
+ * model listener then calls {@link #modelChanged()} on that thread before
+ * handing the change to the event dispatch thread, the view calls
+ * {@link #modelReceived()} when informed of the change and
+ * {@link #framePainted()} once the change has been painted.  Key presses
+ * that do not change the model are counted but not traced further.
+ */
+public class InputLatencyTracer {
+
+    public enum Stage {
+        /** key press until its command starts executing */
+        QUEUEING,
+        /** command executing until the model listener is informed */
+        MODEL_UPDATE,
+        /** model listener informed until the view is informed */
+        NOTIFICATION,
+        /** view informed until the change has been painted */
+        PAINT,
+        /** key press until the change has been painted */
+        TOTAL
+    }
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+    private final ThreadLocal<Trace> activeTrace = new ThreadLocal<>();
+    private final Queue<Trace> notifiedTraces = new ConcurrentLinkedQueue<>();
+    private final Queue<Trace> receivedTraces = new ConcurrentLinkedQueue<>();
+    private final LatencyHistogram unchanged = new LatencyHistogram();
+
+    public InputLatencyTracer() {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * @param inputTime when the key was pressed, per {@link System#nanoTime()}
+     * @return the command, traced from the time of the key press
+     */
+    public Runnable trace(long inputTime, Runnable command) {
+        return () -> {
+            Trace trace = new Trace(inputTime, System.nanoTime());
+            activeTrace.set(trace);
+            try {
+                command.run();
+            } finally {
+                activeTrace.remove();
+                if (trace.notifiedTime == 0) {
+                    unchanged.record(System.nanoTime() - trace.inputTime);
+                }
+            }
+        };
+    }
+
+    /**
+     * Called by the model listener, on the thread that changed the model
+     */
+    public void modelChanged() {
+        Trace trace = activeTrace.get();
+        if ((trace != null) && (trace.notifiedTime == 0)) {
+            trace.notifiedTime = System.nanoTime();
+            notifiedTraces.add(trace);
+        }
+    }
+
+    /**
+     * Called when the view is informed of a change
+     */
+    public void modelReceived() {
+        Trace trace;
+        while ((trace = notifiedTraces.poll()) != null) {
+            trace.receivedTime = System.nanoTime();
+            receivedTraces.add(trace);
+        }
+    }
+
+    /**
+     * Called once a frame has been painted
+     */
+    public void framePainted() {
+        long paintedTime = System.nanoTime();
+        Trace trace;
+        while ((trace = receivedTraces.poll()) != null) {
+            histograms.get(Stage.QUEUEING).record(trace.startTime - trace.inputTime);
+            histograms.get(Stage.MODEL_UPDATE).record(trace.notifiedTime - trace.startTime);
+            histograms.get(Stage.NOTIFICATION).record(trace.receivedTime - trace.notifiedTime);
+            histograms.get(Stage.PAINT).record(paintedTime - trace.receivedTime);
+            histograms.get(Stage.TOTAL).record(paintedTime - trace.inputTime);
+        }
+    }
+
+    public LatencyHistogram latencyOf(Stage stage) {
+        return histograms.get(stage);
+    }
+
+    /**
+     * @return time taken to handle key presses that did not change the model
+     */
+    public LatencyHistogram unchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Writes the latency percentiles of each stage, in microseconds, as
+     * comma separated values with a header line
+     */
+    public void export(Appendable output) throws IOException {
+        TimeUnit unit = TimeUnit.MICROSECONDS;
+        output.append("stage,count,mean,p50,p90,p99,p999,max\n");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = histograms.get(stage);
+            output.append(String.format(Locale.ROOT, "%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f\n",
+                                        stage,
+                                        histogram.count(),
+                                        histogram.mean(unit),
+                                        histogram.percentile(50, unit),
+                                        histogram.percentile(90, unit),
+                                        histogram.percentile(99, unit),
+                                        histogram.percentile(99.9, unit),
+                                        histogram.max(unit)));
+        }
+    }
+
+    private static final class Trace {
+
+        private final long inputTime;
+        private final long startTime;
+        private volatile long notifiedTime;
+        private volatile long receivedTime;
+
+        Trace(long inputTime, long startTime) {
+            this.inputTime = inputTime;
+            this.startTime = startTime;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package jetris.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of durations recorded in nanoseconds.
+ * <p>
+ * Values are counted in log-linear buckets: each power of two is split
+ * into {@value #SUB_BUCKETS} equal buckets, so any percentile is accurate
+ * to within about 6% whilst recording is a single atomic increment and
+ * memory use is fixed regardless of the number of values recorded.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        long currentMax;
+        while (value > (currentMax = max.get())) {
+            if (max.compareAndSet(currentMax, value)) {
+                break;
+            }
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double mean(TimeUnit unit) {
+        long n = count();
+        return (n == 0) ? 0 : (sum.sum() / (double) n) / unit.toNanos(1);
+    }
+
+    public double max(TimeUnit unit) {
+        return max.get() / (double) unit.toNanos(1);
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the value below which the given percentage of recorded
+     *         values fall, or 0 if nothing has been recorded
+     */
+    public double percentile(double percentile, TimeUnit unit) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil((percentile / 100) * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(midpointOf(i), max.get()) / (double) unit.toNanos(1);
+            }
+        }
+        return max(unit);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        TimeUnit unit = TimeUnit.MICROSECONDS;
+        return String.format("count=%d, mean=%.1fus, p50=%.1fus, p90=%.1fus, p99=%.1fus, max=%.1fus",
+                             count(),
+                             mean(unit),
+                             percentile(50, unit),
+                             percentile(90, unit),
+                             percentile(99, unit),
+                             max(unit));
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS) + subBucket;
+    }
+
+    static long lowerBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket / SUB_BUCKETS) + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long midpointOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket / SUB_BUCKETS) + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return lowerBoundOf(bucket) + (width / 2);
+    }
+}
@@ -0,0 +1,21 @@
+package jetris.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jetris.LineClear")
+@Label("Line Clear")
+@Category("Jetris")
+@Description("Completed lines being removed from the board")
+@StackTrace(false)
+public class LineClearEvent extends jdk.jfr.Event {
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Level")
+    public int level;
+}
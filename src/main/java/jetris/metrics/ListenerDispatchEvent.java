@@ -0,0 +1,21 @@
+package jetris.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jetris.ListenerDispatch")
+@Label("Listener Dispatch")
+@Category("Jetris")
+@Description("The game model listener being informed of a change")
+@StackTrace(false)
+public class ListenerDispatchEvent extends jdk.jfr.Event {
+
+    @Label("Listener")
+    public Class<?> listener;
+
+    @Label("State")
+    public String state;
+}
@@ -0,0 +1,19 @@
+package jetris.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jetris.PieceLock")
+@Label("Piece Lock")
+@Category("Jetris")
+@Description("A tetromino being fixed to the board")
+@StackTrace(false)
+public class PieceLockEvent extends jdk.jfr.Event {
+
+    @Label("Pieces")
+    @Description("Number of tetrominos fixed to the board so far")
+    public int pieces;
+}
@@ -0,0 +1,19 @@
+package jetris.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("jetris.Repaint")
+@Label("Repaint")
+@Category("Jetris")
+@Description("The game view painting a frame")
+@StackTrace(false)
+public class RepaintEvent extends jdk.jfr.Event {
+
+    @Label("Rendering")
+    @Description("Passive or active rendering")
+    public String rendering;
+}
@@ -0,0 +1,13 @@
+package jetris.model;
+
+/**
+ * The moves a player can make, as taken by a {@link GameEnvironment}
+ */
+public enum Action {
+    LEFT,
+    RIGHT,
+    ROTATE_LEFT,
+    ROTATE_RIGHT,
+    DOWN,
+    DROP
+}
@@ -0,0 +1,486 @@
+package jetris.model;
+
+import static jetris.model.GameArena.ACTIVE_ROTATION;
+import static jetris.model.GameArena.ACTIVE_SHAPE;
+import static jetris.model.GameArena.ACTIVE_X;
+import static jetris.model.GameArena.ACTIVE_Y;
+import static jetris.model.GameArena.CLEARS;
+import static jetris.model.GameArena.LEVEL;
+import static jetris.model.GameArena.LINES;
+import static jetris.model.GameArena.NEXT_SHAPE;
+import static jetris.model.GameArena.PIECES;
+import static jetris.model.GameArena.RANDOM;
+import static jetris.model.GameArena.ROWS;
+import static jetris.model.GameArena.SCORE;
+import static jetris.model.GameArena.STATE;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import jetris.model.Block.Color;
+import jetris.model.GameModel.GameState;
+import jetris.model.Tetromino.Shape;
+
+/**
+ * Flyweight accessor of a game held in a {@link GameArena}, positioned on
+ * a game with {@link #at(int)}.  Games are played by the same rules as a
+ * {@link GameModel} started with a {@link SeededTetrominoFactory} of the
+ * same seed, but stepping a game allocates nothing.
+ */
+public final class ArenaGame {
+
+    private static final Shape[] SHAPES = Shape.values();
+
+    private static final GameState[] STATES = GameState.values();
+
+    private static final Color[] COLORS = Color.values();
+
+    private static final int BLOCKS = 4;
+
+    /*
+     * Geometry of each shape, indexed by shape and rotation: the initial
+     * position of its first block and the offsets of its blocks from it
+     */
+    private static final int[] SPAWN_X = new int[SHAPES.length];
+    private static final int[] SPAWN_Y = new int[SHAPES.length];
+    private static final int[] ROTATIONS = new int[SHAPES.length];
+    private static final byte[] COLOR = new byte[SHAPES.length];
+    private static final int[] OFFSETS_X = new int[SHAPES.length * 4 * BLOCKS];
+    private static final int[] OFFSETS_Y = new int[SHAPES.length * 4 * BLOCKS];
+
+    static {
+        for (Shape shape : SHAPES) {
+            Block first = Tetromino.of(shape).blocks().get(0);
+            SPAWN_X[shape.ordinal()] = first.x();
+            SPAWN_Y[shape.ordinal()] = first.y();
+            ROTATIONS[shape.ordinal()] = Tetromino.rotations(shape);
+            COLOR[shape.ordinal()] = (byte) (first.color().ordinal() + 1);
+            for (int rotation = 0; rotation < 4; rotation++) {
+                for (int block = 0; block < BLOCKS; block++) {
+                    int i = offsetOf(shape.ordinal(), rotation, block);
+                    OFFSETS_X[i] = Tetromino.offsetX(shape, rotation, block);
+                    OFFSETS_Y[i] = Tetromino.offsetY(shape, rotation, block);
+                }
+            }
+        }
+    }
+
+    private final GameArena arena;
+
+    private final int width;
+
+    private final int height;
+
+    private final int words;
+
+    private final int colours;
+
+    private final long lastWordMask;
+
+    private ByteBuffer buffer;
+
+    private int base;
+
+    ArenaGame(GameArena arena) {
+        this.arena = arena;
+        this.width = arena.width();
+        this.height = arena.height();
+        this.words = arena.words();
+        this.colours = arena.colours();
+        this.lastWordMask = ((width % Long.SIZE) == 0) ? -1L : ((1L << width) - 1);
+        at(0);
+    }
+
+    /**
+     * Positions this accessor on a game
+     * @return this accessor
+     */
+    public ArenaGame at(int slot) {
+        if ((slot < 0) || (slot >= arena.capacity())) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " of " + arena.capacity());
+        }
+        this.buffer = arena.chunkOf(slot);
+        this.base = arena.offsetOf(slot);
+        return this;
+    }
+
+    /**
+     * Starts a new game in the current slot, its tetrominos the sequence
+     * of the given seed
+     */
+    public void reset(long seed) {
+        for (int i = 0; i < arena.slotSize(); i += Long.BYTES) {
+            buffer.putLong(base + i, 0);
+        }
+        buffer.put(base + STATE, (byte) GameState.ACTIVE.ordinal());
+        buffer.putInt(base + LEVEL, 1);
+        buffer.putLong(base + RANDOM, seed);
+        buffer.put(base + NEXT_SHAPE, (byte) drawShape());
+        activateNextTetromino(false);
+    }
+
+    public GameState state() {
+        return STATES[buffer.get(base + STATE)];
+    }
+
+    public boolean isEnded() {
+        return state() == GameState.ENDED;
+    }
+
+    public int score() {
+        return buffer.getInt(base + SCORE);
+    }
+
+    public int lines() {
+        return buffer.getInt(base + LINES);
+    }
+
+    public int level() {
+        return buffer.getInt(base + LEVEL);
+    }
+
+    public int pieces() {
+        return buffer.getInt(base + PIECES);
+    }
+
+    /**
+     * @param linesCleared 1 for singles, up to 4 for tetrises
+     * @return the number of times the given number of lines were cleared
+     *         by a single tetromino
+     */
+    public int clears(int linesCleared) {
+        return buffer.getInt(base + CLEARS + (4 * (linesCleared - 1)));
+    }
+
+    /**
+     * @return the colour of the fixed block at the position, or
+     *         <tt>null</tt> if there is none
+     */
+    public Color colorAt(int x, int y) {
+        int color = buffer.get(base + colours + ((y + Bitboard.HIDDEN_ROWS) * width) + x);
+        return (color == 0) ? null : COLORS[color - 1];
+    }
+
+    /**
+     * @return the fixed blocks and those of the active tetromino, as a
+     *         {@link GameModel} would, e.g. for display
+     */
+    public List<Block> blocks() {
+        ImmutableList.Builder<Block> blocks = ImmutableList.builder();
+        for (int y = -Bitboard.HIDDEN_ROWS; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Color color = colorAt(x, y);
+                if (color != null) {
+                    blocks.add(new Block(color, x, y));
+                }
+            }
+        }
+        int shape = activeShape();
+        int rotation = buffer.get(base + ACTIVE_ROTATION);
+        for (int block = 0; block < BLOCKS; block++) {
+            int i = offsetOf(shape, rotation, block);
+            blocks.add(new Block(COLORS[COLOR[shape] - 1],
+                                 activeX() + OFFSETS_X[i],
+                                 activeY() + OFFSETS_Y[i]));
+        }
+        return blocks.build();
+    }
+
+    /**
+     * Writes the cells of the board, as a {@link GameEnvironment}
+     * observes them, without allocating
+     */
+    void observe(byte[] observation, int offset) {
+        for (int y = 0; y < height; y++) {
+            int row = offset + (y * width);
+            for (int x = 0; x < width; x++) {
+                observation[row + x] = isOccupied(x, y) ? GameEnvironment.FIXED : GameEnvironment.EMPTY;
+            }
+        }
+        int shape = activeShape();
+        int rotation = activeRotation();
+        for (int block = 0; block < BLOCKS; block++) {
+            int i = offsetOf(shape, rotation, block);
+            int y = activeY() + OFFSETS_Y[i];
+            if (y >= 0) {
+                observation[offset + (y * width) + activeX() + OFFSETS_X[i]] = GameEnvironment.ACTIVE;
+            }
+        }
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+
+    boolean isOccupied(int x, int y) {
+        return (buffer.getLong(wordOf(x, y)) & (1L << x)) != 0;
+    }
+
+    int activeBlockX(int block) {
+        return activeX() + OFFSETS_X[offsetOf(activeShape(), activeRotation(), block)];
+    }
+
+    int activeBlockY(int block) {
+        return activeY() + OFFSETS_Y[offsetOf(activeShape(), activeRotation(), block)];
+    }
+
+    Shape nextShape() {
+        return SHAPES[buffer.get(base + NEXT_SHAPE)];
+    }
+
+    public List<Block> nextTetromino() {
+        return Tetromino.of(nextShape()).blocks();
+    }
+
+    /**
+     * @return <tt>true</tt> if the tetromino was moved
+     */
+    public boolean moveLeft() {
+        return isActive() && moveTo(activeRotation(), activeX() - 1, activeY());
+    }
+
+    /**
+     * @return <tt>true</tt> if the tetromino was moved
+     */
+    public boolean moveRight() {
+        return isActive() && moveTo(activeRotation(), activeX() + 1, activeY());
+    }
+
+    /**
+     * Moves the tetromino down, fixing it to the board if it cannot move
+     * @return <tt>true</tt> if the state of the game has changed
+     */
+    public boolean moveDown() {
+        if (!isActive()) {
+            return false;
+        }
+        if (!moveTo(activeRotation(), activeX(), activeY() + 1)) {
+            addScore(Score.softDrop(level()));
+            activateNextTetromino(true);
+        }
+        return true;
+    }
+
+    /**
+     * Drops the tetromino to the bottom of the well and fixes it there
+     * @return <tt>true</tt> if the state of the game has changed
+     */
+    public boolean drop() {
+        if (!isActive()) {
+            return false;
+        }
+        int droppedDistance = 0;
+        while (moveTo(activeRotation(), activeX(), activeY() + 1)) {
+            droppedDistance++;
+        }
+        addScore(Score.hardDrop(droppedDistance, level()));
+        activateNextTetromino(true);
+        return true;
+    }
+
+    /**
+     * @return <tt>true</tt> if the tetromino was rotated
+     */
+    public boolean rotateLeft() {
+        if (!isActive()) {
+            return false;
+        }
+        int rotations = ROTATIONS[activeShape()];
+        return moveTo((activeRotation() + rotations - 1) % rotations, activeX(), activeY());
+    }
+
+    /**
+     * @return <tt>true</tt> if the tetromino was rotated
+     */
+    public boolean rotateRight() {
+        if (!isActive()) {
+            return false;
+        }
+        return moveTo((activeRotation() + 1) % ROTATIONS[activeShape()], activeX(), activeY());
+    }
+
+    private boolean isActive() {
+        return buffer.get(base + STATE) == GameState.ACTIVE.ordinal();
+    }
+
+    private int activeShape() {
+        return buffer.get(base + ACTIVE_SHAPE);
+    }
+
+    private int activeRotation() {
+        return buffer.get(base + ACTIVE_ROTATION);
+    }
+
+    private int activeX() {
+        return buffer.getInt(base + ACTIVE_X);
+    }
+
+    private int activeY() {
+        return buffer.getInt(base + ACTIVE_Y);
+    }
+
+    private void addScore(int points) {
+        buffer.putInt(base + SCORE, score() + points);
+    }
+
+    private boolean moveTo(int rotation, int x, int y) {
+        if (!fits(activeShape(), rotation, x, y)) {
+            return false;
+        }
+        buffer.put(base + ACTIVE_ROTATION, (byte) rotation);
+        buffer.putInt(base + ACTIVE_X, x);
+        buffer.putInt(base + ACTIVE_Y, y);
+        return true;
+    }
+
+    private boolean fits(int shape, int rotation, int x, int y) {
+        for (int block = 0; block < BLOCKS; block++) {
+            int i = offsetOf(shape, rotation, block);
+            int blockX = x + OFFSETS_X[i];
+            int blockY = y + OFFSETS_Y[i];
+            // shapes are allowed to rotate and have y that is less than 0
+            if ((blockX < 0) || (blockX >= width) || (blockY >= height)) {
+                return false;
+            }
+            if ((blockY >= -Bitboard.HIDDEN_ROWS) && ((buffer.getLong(wordOf(blockX, blockY)) & (1L << blockX)) != 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * As Game.activateNextTetromino: the game ends when the new tetromino
+     * cannot be centred, or overlaps the fixed blocks of a board too
+     * narrow to centre it
+     */
+    private void activateNextTetromino(boolean fix) {
+        if (fix) {
+            fixActiveTetrominoBlocksToBoard();
+            removeAndScoreCompletedLines();
+            maybeUpdateLevel();
+        }
+        int shape = buffer.get(base + NEXT_SHAPE);
+        buffer.put(base + ACTIVE_SHAPE, (byte) shape);
+        buffer.put(base + ACTIVE_ROTATION, (byte) 0);
+        buffer.putInt(base + ACTIVE_X, SPAWN_X[shape]);
+        buffer.putInt(base + ACTIVE_Y, SPAWN_Y[shape]);
+        buffer.put(base + NEXT_SHAPE, (byte) drawShape());
+        if (((width - Game.MIN_WIDTH) < 2) && !fits(shape, 0, SPAWN_X[shape], SPAWN_Y[shape])) {
+            if (fix) {
+                buffer.put(base + STATE, (byte) GameState.ENDED.ordinal());
+            }
+            return;
+        }
+        for (int i = 0; i < ((width - Game.MIN_WIDTH) / 2); i++) {
+            if (!moveTo(0, activeX() + 1, activeY())) {
+                if (fix) {
+                    buffer.put(base + STATE, (byte) GameState.ENDED.ordinal());
+                }
+                return;
+            }
+        }
+    }
+
+    private int drawShape() {
+        long random = SeededTetrominoFactory.next(buffer.getLong(base + RANDOM));
+        buffer.putLong(base + RANDOM, random);
+        return SeededTetrominoFactory.shapeOf(random).ordinal();
+    }
+
+    private void fixActiveTetrominoBlocksToBoard() {
+        int shape = activeShape();
+        int rotation = activeRotation();
+        for (int block = 0; block < BLOCKS; block++) {
+            int i = offsetOf(shape, rotation, block);
+            int x = activeX() + OFFSETS_X[i];
+            int y = activeY() + OFFSETS_Y[i];
+            if (y >= -Bitboard.HIDDEN_ROWS) {
+                int word = wordOf(x, y);
+                buffer.putLong(word, buffer.getLong(word) | (1L << x));
+                buffer.put(colourOf(x, y), COLOR[shape]);
+            }
+        }
+        buffer.putInt(base + PIECES, pieces() + 1);
+    }
+
+    private void removeAndScoreCompletedLines() {
+        int linesCleared = 0;
+        for (int y = 0; y < height; y++) {
+            if (isFull(y)) {
+                linesCleared++;
+            }
+        }
+        if (linesCleared > 0) {
+            buffer.putInt(base + LINES, lines() + linesCleared);
+            addScore(Score.completed(linesCleared, level()));
+            int clears = base + CLEARS + (4 * (linesCleared - 1));
+            buffer.putInt(clears, buffer.getInt(clears) + 1);
+            removeFullRows();
+        }
+    }
+
+    /*
+     * As Bitboard.removeFullRows, moving the colours with the rows
+     */
+    private void removeFullRows() {
+        int to = height - 1;
+        for (int from = to; from >= -Bitboard.HIDDEN_ROWS; from--) {
+            if (!isFull(from)) {
+                if (to != from) {
+                    for (int word = 0; word < words; word++) {
+                        buffer.putLong(wordOf(word * Long.SIZE, to), buffer.getLong(wordOf(word * Long.SIZE, from)));
+                    }
+                    for (int x = 0; x < width; x++) {
+                        buffer.put(colourOf(x, to), buffer.get(colourOf(x, from)));
+                    }
+                }
+                to--;
+            }
+        }
+        for (int y = -Bitboard.HIDDEN_ROWS; y <= to; y++) {
+            for (int word = 0; word < words; word++) {
+                buffer.putLong(wordOf(word * Long.SIZE, y), 0);
+            }
+            for (int x = 0; x < width; x++) {
+                buffer.put(colourOf(x, y), (byte) 0);
+            }
+        }
+    }
+
+    private boolean isFull(int y) {
+        if (y < 0) {
+            return false;
+        }
+        for (int word = 0; word < (words - 1); word++) {
+            if (buffer.getLong(wordOf(word * Long.SIZE, y)) != -1L) {
+                return false;
+            }
+        }
+        return buffer.getLong(wordOf((words - 1) * Long.SIZE, y)) == lastWordMask;
+    }
+
+    private void maybeUpdateLevel() {
+        if (level() < 10) {
+            buffer.putInt(base + LEVEL, (lines() / 10) + 1);
+        }
+    }
+
+    private int wordOf(int x, int y) {
+        return base + ROWS + ((((y + Bitboard.HIDDEN_ROWS) * words) + (x >>> 6)) * Long.BYTES);
+    }
+
+    private int colourOf(int x, int y) {
+        return base + colours + ((y + Bitboard.HIDDEN_ROWS) * width) + x;
+    }
+
+    private static int offsetOf(int shape, int rotation, int block) {
+        return (((shape * 4) + rotation) * BLOCKS) + block;
+    }
+}
@@ -0,0 +1,217 @@
+package jetris.model;
+
+import java.util.Arrays;
+
+/**
+ * Occupancy of the cells of a board, one bit per cell.  Each row is held
+ * in as many <tt>long</tt> words as its width needs (a single word for
+ * boards up to 64 columns), so testing whether a row is full compares a
+ * word at a time rather than a cell at a time.
+ * <p>
+ * Rotating near the top of the board can take blocks above it, so rows
+ * are also kept for the space above the board (where y is negative).
+ */
+class Bitboard extends GameObject {
+
+    static final int HIDDEN_ROWS = 4;
+
+    /*
+     * Boards at least this wide find the columns a piece fits at with
+     * word operations; narrower boards have so few placements that
+     * testing each is quicker.  Measured with BitboardBenchmark and
+     * overridable with the jetris.bitboard.wordParallelColumns system
+     * property.
+     */
+    static final int WORD_PARALLEL_COLUMNS = Integer.getInteger("jetris.bitboard.wordParallelColumns", 8);
+
+    private final int width;
+    private final int height;
+    private final int words;
+    private final long lastWordMask;
+    private final long[] cells;
+
+    Bitboard(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.words = (width + Long.SIZE - 1) / Long.SIZE;
+        this.lastWordMask = -1L >>> ((words * Long.SIZE) - width);
+        this.cells = new long[(HIDDEN_ROWS + height) * words];
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+
+    /**
+     * Makes this board a copy of another of the same size
+     */
+    void copyFrom(Bitboard other) {
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+    }
+
+    void clear() {
+        Arrays.fill(cells, 0);
+    }
+
+    /**
+     * @return <tt>true</tt> if the position is within the columns of the
+     *         board and above its bottom
+     */
+    boolean isWithin(int x, int y) {
+        return (x >= 0) && (x < width) && (y < height);
+    }
+
+    boolean isOccupied(int x, int y) {
+        if (y < -HIDDEN_ROWS) {
+            return false;
+        }
+        return (cells[wordOf(x, y)] & (1L << x)) != 0;
+    }
+
+    void occupy(int x, int y) {
+        if (y >= -HIDDEN_ROWS) {
+            cells[wordOf(x, y)] |= (1L << x);
+        }
+    }
+
+    boolean isFull(int y) {
+        if (y < 0) {
+            return false;
+        }
+        int start = (y + HIDDEN_ROWS) * words;
+        int last = start + words - 1;
+        for (int i = start; i < last; i++) {
+            if (cells[i] != -1L) {
+                return false;
+            }
+        }
+        return cells[last] == lastWordMask;
+    }
+
+    /**
+     * Tests whether a piece can be placed with its left most column at x,
+     * one block at a time
+     * @see #freeColumns
+     */
+    boolean fits(long[] pieceRows, int pieceWidth, int x, int y) {
+        if ((x < 0) || ((x + pieceWidth) > width)) {
+            return false;
+        }
+        for (int r = 0; r < pieceRows.length; r++) {
+            for (long mask = pieceRows[r]; mask != 0; mask &= (mask - 1)) {
+                int column = x + Long.numberOfTrailingZeros(mask);
+                if (!isWithin(column, y + r) || isOccupied(column, y + r)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds every column a piece can be placed at without colliding with
+     * the occupied cells.  On all but the narrowest boards up to 64
+     * columns are tested with each word operation, rather than testing
+     * each placement in turn.
+     * @param pieceRows a bitmask of the columns the piece occupies in each
+     *        of its rows, relative to its left most column
+     * @param pieceWidth the number of columns the piece spans
+     * @param y the row of the top of the piece
+     * @param columns receives a bit set for each left most column the
+     *        piece fits at, as many words as a row of the board
+     */
+    void freeColumns(long[] pieceRows, int pieceWidth, int y, long[] columns) {
+        if (width >= WORD_PARALLEL_COLUMNS) {
+            freeColumnsByWord(pieceRows, pieceWidth, y, columns);
+        }
+        else {
+            freeColumnsByPlacement(pieceRows, pieceWidth, y, columns);
+        }
+    }
+
+    void freeColumnsByPlacement(long[] pieceRows, int pieceWidth, int y, long[] columns) {
+        Arrays.fill(columns, 0, words, 0);
+        for (int x = 0; x <= (width - pieceWidth); x++) {
+            if (fits(pieceRows, pieceWidth, x, y)) {
+                columns[x >>> 6] |= (1L << x);
+            }
+        }
+    }
+
+    void freeColumnsByWord(long[] pieceRows, int pieceWidth, int y, long[] columns) {
+        Arrays.fill(columns, 0, words, 0);
+        for (int r = 0; r < pieceRows.length; r++) {
+            int row = y + r;
+            if ((pieceRows[r] == 0) || (row < -HIDDEN_ROWS)) {
+                continue;
+            }
+            if (row >= height) {
+                Arrays.fill(columns, 0, words, 0);
+                return;
+            }
+            int start = (row + HIDDEN_ROWS) * words;
+            for (long mask = pieceRows[r]; mask != 0; mask &= (mask - 1)) {
+                blockColumns(start, Long.numberOfTrailingZeros(mask), columns);
+            }
+        }
+        for (int i = 0; i < words; i++) {
+            columns[i] = ~columns[i];
+        }
+        int placements = width - pieceWidth + 1;
+        for (int i = 0; i < words; i++) {
+            int first = i * Long.SIZE;
+            if (placements <= first) {
+                columns[i] = 0;
+            }
+            else if (placements < (first + Long.SIZE)) {
+                columns[i] &= (1L << (placements - first)) - 1;
+            }
+        }
+    }
+
+    /*
+     * A piece whose column c is occupied cannot be placed with its left
+     * most column at x wherever x + c is occupied, so the occupancy of
+     * the row is shifted right by c (across words) into the columns
+     * blocked
+     */
+    private void blockColumns(int start, int c, long[] blocked) {
+        int wordShift = c >>> 6;
+        int bitShift = c & 63;
+        for (int i = 0; (i + wordShift) < words; i++) {
+            long low = cells[start + i + wordShift] >>> bitShift;
+            long high = (((i + wordShift + 1) < words) && (bitShift != 0))
+                    ? (cells[start + i + wordShift + 1] << (Long.SIZE - bitShift))
+                    : 0;
+            blocked[i] |= (low | high);
+        }
+    }
+
+    /**
+     * Removes the full rows, moving the rows above each down in its place
+     */
+    void removeFullRows() {
+        int to = HIDDEN_ROWS + height - 1;
+        for (int from = to; from >= 0; from--) {
+            if (!isFull(from - HIDDEN_ROWS)) {
+                if (to != from) {
+                    System.arraycopy(cells, from * words, cells, to * words, words);
+                }
+                to--;
+            }
+        }
+        Arrays.fill(cells, 0, (to + 1) * words, 0);
+    }
+
+    /*
+     * Shifts of a long use only the low 6 bits, so (1L << x) selects the
+     * bit of x within its word
+     */
+    private int wordOf(int x, int y) {
+        return ((y + HIDDEN_ROWS) * words) + (x >>> 6);
+    }
+}
@@ -51,4 +51,8 @@ public class Block extends GameObject {
     Block moveDown() {
         return new Block(color, x, (y + 1));
     }
+
+    Block moveDownBy(int distance) {
+        return (distance == 0) ? this : new Block(color, x, (y + distance));
+    }
 }
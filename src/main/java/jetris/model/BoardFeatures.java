@@ -0,0 +1,385 @@
+package jetris.model;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The {@link Feature}s of a board, maintained as blocks are fixed to it
+ * rather than measured from scratch for each query.
+ * <p>
+ * Each feature is held per column (height, holes, column transitions and
+ * wells) or per row (row transitions) along with its total, so fixing a
+ * tetromino re-measures only the columns and rows it touches (and the
+ * columns either side, whose wells it may have filled or deepened).
+ * Clearing lines moves every column, so the board is then measured
+ * afresh.
+ * <p>
+ * A placement can be evaluated without fixing it, by measuring the same
+ * columns and rows as if the tetromino were there.
+ */
+final class BoardFeatures {
+
+    private static final int BLOCKS = 4;
+
+    private static final Feature[] FEATURES = Feature.values();
+
+    private final Bitboard board;
+    private final int width;
+    private final int height;
+    private final int[] heights;
+    private final int[] holes;
+    private final int[] columnTransitions;
+    private final int[] wells;
+    private final int[] rowTransitions;
+    private int totalHeight;
+    private int totalHoles;
+    private int totalBumpiness;
+    private int totalRowTransitions;
+    private int totalColumnTransitions;
+    private int totalWells;
+    private int linesCleared;
+
+    /*
+     * The measures of the last column measured
+     */
+    private int columnHeight;
+    private int columnHoles;
+    private int columnTransitionCount;
+    private int columnWells;
+
+    /*
+     * The blocks of a placement being evaluated, and the heights of the
+     * columns it changes
+     */
+    private final int[] placedX = new int[BLOCKS];
+    private final int[] placedY = new int[BLOCKS];
+    private int placed;
+    private int placedLeft;
+    private int placedRight;
+    private int placedTop;
+    private int placedBottom;
+    private final int[] placedHeights = new int[BLOCKS + 2];
+
+    /*
+     * Created on first evaluating a placement that clears lines
+     */
+    private Bitboard scratch;
+    private BoardFeatures scratchFeatures;
+
+    BoardFeatures(Bitboard board) {
+        this.board = board;
+        this.width = board.width();
+        this.height = board.height();
+        this.heights = new int[width];
+        this.holes = new int[width];
+        this.columnTransitions = new int[width];
+        this.wells = new int[width];
+        this.rowTransitions = new int[height];
+        measure();
+    }
+
+    /**
+     * Measures every column and row afresh, e.g. once lines are cleared
+     * @param linesCleared by fixing the last tetromino
+     */
+    void measure(int linesCleared) {
+        this.linesCleared = linesCleared;
+        measure();
+    }
+
+    /**
+     * Re-measures the columns and rows of blocks just fixed to the board
+     */
+    void fixed(Tetromino tetromino) {
+        ImmutableList<Block> blocks = tetromino.blocks();
+        int left = Integer.MAX_VALUE;
+        int right = Integer.MIN_VALUE;
+        int top = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        for (int i = 0; i < blocks.size(); i++) {
+            left = Math.min(left, blocks.get(i).x());
+            right = Math.max(right, blocks.get(i).x());
+            top = Math.min(top, blocks.get(i).y());
+            bottom = Math.max(bottom, blocks.get(i).y());
+        }
+        linesCleared = 0;
+        int from = Math.max(0, left - 1);
+        int to = Math.min(width - 1, right + 1);
+        totalBumpiness -= bumpiness(from, to);
+        for (int x = from; x <= to; x++) {
+            totalHeight -= heights[x];
+            totalHoles -= holes[x];
+            totalColumnTransitions -= columnTransitions[x];
+            totalWells -= wells[x];
+            measureColumn(x);
+            heights[x] = columnHeight;
+            holes[x] = columnHoles;
+            columnTransitions[x] = columnTransitionCount;
+            wells[x] = columnWells;
+            totalHeight += columnHeight;
+            totalHoles += columnHoles;
+            totalColumnTransitions += columnTransitionCount;
+            totalWells += columnWells;
+        }
+        totalBumpiness += bumpiness(from, to);
+        for (int y = Math.max(0, top); y <= Math.min(height - 1, bottom); y++) {
+            totalRowTransitions -= rowTransitions[y];
+            rowTransitions[y] = measureRow(y);
+            totalRowTransitions += rowTransitions[y];
+        }
+    }
+
+    /**
+     * Makes these features a copy of those of another board of the same
+     * size, as that board is copied to this one
+     */
+    void copyFrom(BoardFeatures other) {
+        System.arraycopy(other.heights, 0, heights, 0, width);
+        System.arraycopy(other.holes, 0, holes, 0, width);
+        System.arraycopy(other.columnTransitions, 0, columnTransitions, 0, width);
+        System.arraycopy(other.wells, 0, wells, 0, width);
+        System.arraycopy(other.rowTransitions, 0, rowTransitions, 0, height);
+        totalHeight = other.totalHeight;
+        totalHoles = other.totalHoles;
+        totalBumpiness = other.totalBumpiness;
+        totalRowTransitions = other.totalRowTransitions;
+        totalColumnTransitions = other.totalColumnTransitions;
+        totalWells = other.totalWells;
+        linesCleared = other.linesCleared;
+    }
+
+    int get(Feature feature) {
+        switch (feature) {
+          case LINES: return linesCleared;
+          case HEIGHT: return totalHeight;
+          case HOLES: return totalHoles;
+          case BUMPINESS: return totalBumpiness;
+          case ROW_TRANSITIONS: return totalRowTransitions;
+          case COLUMN_TRANSITIONS: return totalColumnTransitions;
+          default:
+              assert feature == Feature.WELLS;
+              return totalWells;
+        }
+    }
+
+    /**
+     * Evaluates the features the board would have were a tetromino fixed
+     * to it, leaving the board unchanged
+     * @param features receives the value of each feature, indexed by its
+     *        ordinal
+     */
+    void evaluate(Tetromino placement, int[] features) {
+        ImmutableList<Block> blocks = placement.blocks();
+        int left = Integer.MAX_VALUE;
+        int right = Integer.MIN_VALUE;
+        int top = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        for (int i = 0; i < blocks.size(); i++) {
+            placedX[i] = blocks.get(i).x();
+            placedY[i] = blocks.get(i).y();
+            left = Math.min(left, placedX[i]);
+            right = Math.max(right, placedX[i]);
+            top = Math.min(top, placedY[i]);
+            bottom = Math.max(bottom, placedY[i]);
+        }
+        placed = blocks.size();
+        placedLeft = left;
+        placedRight = right;
+        placedTop = top;
+        placedBottom = bottom;
+        int completed = 0;
+        for (int y = Math.max(0, top); y <= Math.min(height - 1, bottom); y++) {
+            if (isFull(y)) {
+                completed++;
+            }
+        }
+        if (completed > 0) {
+            evaluateClearing(completed, features);
+        }
+        else {
+            evaluate(left, right, top, bottom, features);
+        }
+        placed = 0;
+    }
+
+    /*
+     * Clearing lines moves every column, so the board is copied, the
+     * tetromino fixed and lines cleared, and the copy measured
+     */
+    private void evaluateClearing(int completed, int[] features) {
+        if (scratch == null) {
+            scratch = new Bitboard(width, height);
+            scratchFeatures = new BoardFeatures(scratch);
+        }
+        scratch.copyFrom(board);
+        for (int i = 0; i < placed; i++) {
+            scratch.occupy(placedX[i], placedY[i]);
+        }
+        scratch.removeFullRows();
+        scratchFeatures.measure(completed);
+        for (Feature feature : FEATURES) {
+            features[feature.ordinal()] = scratchFeatures.get(feature);
+        }
+    }
+
+    private void evaluate(int left, int right, int top, int bottom, int[] features) {
+        int from = Math.max(0, left - 1);
+        int to = Math.min(width - 1, right + 1);
+        int aggregateHeight = totalHeight;
+        int holes = totalHoles;
+        int columnTransitions = totalColumnTransitions;
+        int wells = totalWells;
+        int bumpiness = totalBumpiness - bumpiness(from, to);
+        for (int x = from; x <= to; x++) {
+            measureColumn(x);
+            placedHeights[x - from] = columnHeight;
+            aggregateHeight += columnHeight - heights[x];
+            holes += columnHoles - this.holes[x];
+            columnTransitions += columnTransitionCount - this.columnTransitions[x];
+            wells += columnWells - this.wells[x];
+        }
+        for (int x = Math.max(1, from); x <= Math.min(width - 1, to + 1); x++) {
+            bumpiness += Math.abs(placedHeight(x, from, to) - placedHeight(x - 1, from, to));
+        }
+        int rowTransitions = totalRowTransitions;
+        for (int y = Math.max(0, top); y <= Math.min(height - 1, bottom); y++) {
+            rowTransitions += measureRow(y) - this.rowTransitions[y];
+        }
+        features[Feature.LINES.ordinal()] = 0;
+        features[Feature.HEIGHT.ordinal()] = aggregateHeight;
+        features[Feature.HOLES.ordinal()] = holes;
+        features[Feature.BUMPINESS.ordinal()] = bumpiness;
+        features[Feature.ROW_TRANSITIONS.ordinal()] = rowTransitions;
+        features[Feature.COLUMN_TRANSITIONS.ordinal()] = columnTransitions;
+        features[Feature.WELLS.ordinal()] = wells;
+    }
+
+    private int placedHeight(int x, int from, int to) {
+        return ((x >= from) && (x <= to)) ? placedHeights[x - from] : heights[x];
+    }
+
+    /*
+     * Sum of the differences in height of the pairs of columns that
+     * include a column from one to another
+     */
+    private int bumpiness(int from, int to) {
+        int bumpiness = 0;
+        for (int x = Math.max(1, from); x <= Math.min(width - 1, to + 1); x++) {
+            bumpiness += Math.abs(heights[x] - heights[x - 1]);
+        }
+        return bumpiness;
+    }
+
+    private void measure() {
+        totalHeight = 0;
+        totalHoles = 0;
+        totalColumnTransitions = 0;
+        totalWells = 0;
+        for (int x = 0; x < width; x++) {
+            measureColumn(x);
+            heights[x] = columnHeight;
+            holes[x] = columnHoles;
+            columnTransitions[x] = columnTransitionCount;
+            wells[x] = columnWells;
+            totalHeight += columnHeight;
+            totalHoles += columnHoles;
+            totalColumnTransitions += columnTransitionCount;
+            totalWells += columnWells;
+        }
+        totalBumpiness = bumpiness(0, width - 1);
+        totalRowTransitions = 0;
+        for (int y = 0; y < height; y++) {
+            rowTransitions[y] = measureRow(y);
+            totalRowTransitions += rowTransitions[y];
+        }
+    }
+
+    private void measureColumn(int x) {
+        int top = -Bitboard.HIDDEN_ROWS;
+        columnHeight = 0;
+        columnHoles = 0;
+        columnTransitionCount = 0;
+        columnWells = 0;
+        int well = 0;
+        boolean above = false;
+        for (int y = top; y < height; y++) {
+            boolean occupied = isOccupied(x, y);
+            if (occupied) {
+                columnHeight = Math.max(columnHeight, height - y);
+            }
+            else if (columnHeight > 0) {
+                columnHoles++;
+            }
+            else if (isWall(x - 1, y) && isWall(x + 1, y)) {
+                columnWells += ++well;
+            }
+            else {
+                well = 0;
+            }
+            if ((y > top) && (occupied != above)) {
+                columnTransitionCount++;
+            }
+            above = occupied;
+        }
+        if (!above) {
+            columnTransitionCount++;
+        }
+    }
+
+    private int measureRow(int y) {
+        int transitions = 0;
+        boolean left = true;
+        for (int x = 0; x < width; x++) {
+            boolean occupied = isOccupied(x, y);
+            if (occupied != left) {
+                transitions++;
+            }
+            left = occupied;
+        }
+        return left ? transitions : (transitions + 1);
+    }
+
+    private boolean isFull(int y) {
+        for (int x = 0; x < width; x++) {
+            if (!isOccupied(x, y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isWall(int x, int y) {
+        return (x < 0) || (x >= width) || isOccupied(x, y);
+    }
+
+    /*
+     * Occupied on the board, or by the placement being evaluated
+     */
+    private boolean isOccupied(int x, int y) {
+        if (board.isOccupied(x, y)) {
+            return true;
+        }
+        if ((x < placedLeft) || (x > placedRight) || (y < placedTop) || (y > placedBottom)) {
+            return false;
+        }
+        for (int i = 0; i < placed; i++) {
+            if ((placedX[i] == x) && (placedY[i] == y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Measures the features of a board from scratch
+     * @param linesCleared by placing the last tetromino
+     * @param features receives the value of each feature, indexed by its
+     *        ordinal
+     */
+    static void measure(Bitboard board, int linesCleared, int[] features) {
+        BoardFeatures measured = new BoardFeatures(board);
+        for (Feature feature : FEATURES) {
+            features[feature.ordinal()] = measured.get(feature);
+        }
+        features[Feature.LINES.ordinal()] = linesCleared;
+    }
+}
@@ -0,0 +1,14 @@
+package jetris.model;
+
+/**
+ * Plays headless games, choosing where to place each tetromino
+ */
+interface Bot {
+
+    /**
+     * Places the active tetromino of the game and activates the next
+     * @return <tt>false</tt> if the game has ended, as the next tetromino
+     *         could not be positioned on the board
+     */
+    boolean move(Game game);
+}
@@ -0,0 +1,46 @@
+package jetris.model;
+
+/**
+ * Features of a board, after placing a tetromino, by which bots weigh
+ * up where to place it.
+ */
+public enum Feature {
+
+    /**
+     * Lines cleared by the placement
+     */
+    LINES,
+
+    /**
+     * Sum of the heights of the columns
+     */
+    HEIGHT,
+
+    /**
+     * Empty cells beneath the top block of their column
+     */
+    HOLES,
+
+    /**
+     * Sum of the differences in height of adjacent columns
+     */
+    BUMPINESS,
+
+    /**
+     * Changes between empty and occupied cells along each row, the walls
+     * counting as occupied
+     */
+    ROW_TRANSITIONS,
+
+    /**
+     * Changes between empty and occupied cells down each column, the
+     * floor counting as occupied
+     */
+    COLUMN_TRANSITIONS,
+
+    /**
+     * Sum of the depths of wells (empty cells between occupied cells or
+     * walls), each cell counting for its depth in its well
+     */
+    WELLS
+}
@@ -1,9 +1,8 @@
 package jetris.model;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 import com.google.common.collect.ImmutableList;
 
@@ -12,14 +11,29 @@ import com.google.common.collect.ImmutableList;
  */
 class Game extends GameObject {
 
-    private static final int BOARD_WIDTH = 10;
+    static final int MIN_WIDTH = 4;
 
-    private static final int BOARD_HEIGHT = 17;
+    static final int MIN_HEIGHT = 2;
 
     private final TetrominoFactory tetrominoFactory;
 
+    private final GameEvents events;
+
     private final List<Block> fixedBlocks = new ArrayList<>();
 
+    /*
+     * Occupancy of the fixed blocks
+     */
+    private final Bitboard board;
+
+    private final BoardFeatures features;
+
+    /*
+     * Distance each row falls when completed lines are removed, reused
+     * between clears
+     */
+    private final int[] drops;
+
     private Tetromino nextTetromino;
 
     private Tetromino activeTetromino;
@@ -30,12 +44,68 @@ class Game extends GameObject {
 
     private int level = 1;
 
+    private int pieces;
+
+    /*
+     * Number of times each number of lines (single, double, triple and
+     * tetris) were cleared at once, indexed by that number
+     */
+    private final int[] clears = new int[Score.MAX_LINES_CLEARED + 1];
+
     Game(TetrominoFactory tetrominoFactory) {
+        this(tetrominoFactory, GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, GameEvents.NONE);
+    }
+
+    Game(TetrominoFactory tetrominoFactory, int width, int height, GameEvents events) {
+        if ((width < MIN_WIDTH) || (height < MIN_HEIGHT)) {
+            throw new IllegalArgumentException("Board must be at least " + MIN_WIDTH + "x" + MIN_HEIGHT + ": " + width + "x" + height);
+        }
         this.tetrominoFactory = tetrominoFactory;
-        this.nextTetromino = tetrominoFactory.create();
+        this.events = events;
+        this.board = new Bitboard(width, height);
+        this.features = new BoardFeatures(board);
+        this.drops = new int[height];
+        restart();
+    }
+
+    /**
+     * Starts the game again with an empty board, reusing its memory for
+     * the next of many simulated games
+     */
+    void restart() {
+        fixedBlocks.clear();
+        board.clear();
+        features.measure(0);
+        Arrays.fill(clears, 0);
+        score = 0;
+        lines = 0;
+        level = 1;
+        pieces = 0;
+        activeTetromino = null;
+        nextTetromino = tetrominoFactory.create();
         activateNextTetromino();
     }
 
+    /**
+     * Makes this game a copy of another of the same size, except for the
+     * tetrominos it creates, e.g. to simulate how the other might play out
+     */
+    void copyFrom(Game other) {
+        fixedBlocks.clear();
+        for (int i = 0; i < other.fixedBlocks.size(); i++) {
+            fixedBlocks.add(other.fixedBlocks.get(i));
+        }
+        board.copyFrom(other.board);
+        features.copyFrom(other.features);
+        System.arraycopy(other.clears, 0, clears, 0, clears.length);
+        nextTetromino = other.nextTetromino;
+        activeTetromino = other.activeTetromino;
+        score = other.score;
+        lines = other.lines;
+        level = other.level;
+        pieces = other.pieces;
+    }
+
     ImmutableList<Block> blocks() {
         return new ImmutableList.Builder<Block>()
                     .addAll(fixedBlocks)
@@ -47,6 +117,47 @@ class Game extends GameObject {
         return nextTetromino.blocks();
     }
 
+    Tetromino.Shape nextShape() {
+        return nextTetromino.shape();
+    }
+
+    Tetromino activeTetromino() {
+        return activeTetromino;
+    }
+
+    /**
+     * @return the occupancy of the fixed blocks, not to be modified
+     */
+    Bitboard board() {
+        return board;
+    }
+
+    /**
+     * @return the value of a feature of the board, maintained as
+     *         tetrominos are fixed to it
+     */
+    int feature(Feature feature) {
+        return features.get(feature);
+    }
+
+    /**
+     * Evaluates the features the board would have were a tetromino fixed
+     * to it, without fixing it
+     * @param features receives the value of each feature, indexed by its
+     *        ordinal
+     */
+    void evaluate(Tetromino placement, int[] features) {
+        this.features.evaluate(placement, features);
+    }
+
+    int width() {
+        return board.width();
+    }
+
+    int height() {
+        return board.height();
+    }
+
     int score() {
         return score;
     }
@@ -59,6 +170,21 @@ class Game extends GameObject {
         return level;
     }
 
+    /**
+     * @return the number of tetrominos fixed to the board
+     */
+    int pieces() {
+        return pieces;
+    }
+
+    /**
+     * @return the number of times the given number of lines were cleared
+     *         by a single tetromino
+     */
+    int clears(int linesCleared) {
+        return clears[linesCleared];
+    }
+
     boolean moveActiveTetrominoLeft() {
         Tetromino provisional = activeTetromino.moveLeft();
         if (isValidTetrominoPosition(provisional)) {
@@ -128,45 +254,56 @@ class Game extends GameObject {
 
     private void fixActiveTetrominoBlocksToBoard() {
         if (activeTetromino != null) {
-            fixedBlocks.addAll(activeTetromino.blocks());
+            ImmutableList<Block> blocks = activeTetromino.blocks();
+            for (int i = 0; i < blocks.size(); i++) {
+                Block block = blocks.get(i);
+                fixedBlocks.add(block);
+                board.occupy(block.x(), block.y());
+            }
+            features.fixed(activeTetromino);
+            pieces++;
+            events.pieceLocked(pieces);
         }
     }
 
     private void removeAndScoreCompletedLines() {
         int linesCleared = 0;
-        for (int y = 0; y < BOARD_HEIGHT; y++) {
-            if (isLineCompleted(y)) {
-                removeLine(y);
+        for (int y = board.height() - 1; y >= 0; y--) {
+            drops[y] = linesCleared;
+            if (board.isFull(y)) {
                 linesCleared++;
             }
         }
         lines += linesCleared;
         score += Score.completed(linesCleared, level);
+        if (linesCleared > 0) {
+            clears[linesCleared]++;
+            removeCompletedLines();
+            features.measure(linesCleared);
+            events.linesCleared(linesCleared, level);
+        }
     }
 
-    private boolean isLineCompleted(int y) {
-        Set<Integer> used = new HashSet<>();
-        for (Block block : fixedBlocks) {
-            if (block.y() == y) {
-                used.add(block.x());
+    /*
+     * Blocks fall by the number of completed lines beneath them
+     */
+    private void removeCompletedLines() {
+        int kept = 0;
+        for (int i = 0; i < fixedBlocks.size(); i++) {
+            Block block = fixedBlocks.get(i);
+            if (!board.isFull(block.y())) {
+                fixedBlocks.set(kept++, block.moveDownBy(dropOf(block.y())));
             }
         }
-        return used.size() == BOARD_WIDTH;
+        fixedBlocks.subList(kept, fixedBlocks.size()).clear();
+        board.removeFullRows();
     }
 
-    private void removeLine(int y) {
-        fixedBlocks.removeIf(block -> block.y() == y);
-        moveFixedBlocksDownTo(y);
-    }
-
-    private void moveFixedBlocksDownTo(int y) {
-        for (Block block : new ArrayList<>(fixedBlocks)) {
-            if (block.y() < y) {
-                fixedBlocks.remove(block);
-                block = block.moveDown();
-                fixedBlocks.add(block);
-            }
+    private int dropOf(int y) {
+        if (y < 0) {
+            return drops[0] + (board.isFull(0) ? 1 : 0);
         }
+        return drops[y];
     }
 
     private void maybeUpdateLevel() {
@@ -175,21 +312,31 @@ class Game extends GameObject {
         }
     }
 
-    private boolean isValidTetrominoPosition(Tetromino tetromino) {
-        return tetromino.blocks().stream()
-                        .allMatch(b -> isValidPosition(b));
+    boolean isValidTetrominoPosition(Tetromino tetromino) {
+        ImmutableList<Block> blocks = tetromino.blocks();
+        for (int i = 0; i < blocks.size(); i++) {
+            if (!isValidPosition(blocks.get(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private boolean isValidPosition(Block block) {
-        if (fixedBlocks.stream().anyMatch(b -> (b.x() == block.x()) && (b.y() == block.y()))) {
-            return false;
-        }
         // shapes are allowed to rotate and have y that is less than 0
-        return (block.x() >= 0) && (block.x() < BOARD_WIDTH) && (block.y() < BOARD_HEIGHT);
+        return board.isWithin(block.x(), block.y()) && !board.isOccupied(block.x(), block.y());
     }
 
+    /*
+     * New tetrominos are centred, and end the game if they overlap the
+     * fixed blocks on the way; boards too narrow to move them are checked
+     * where they are
+     */
     private boolean positionNewTetrominoOnBoard() {
-        for (int i = 0; i < 3; i++) {
+        if (((board.width() - MIN_WIDTH) < 2) && !isValidTetrominoPosition(activeTetromino)) {
+            return false;
+        }
+        for (int i = 0; i < ((board.width() - MIN_WIDTH) / 2); i++) {
             Tetromino provisional = activeTetromino.moveRight();
             if (!isValidTetrominoPosition(provisional)) {
                 return false;
@@ -0,0 +1,130 @@
+package jetris.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off-heap store of the state of very many games, for populations of
+ * games (e.g. for training) too large to hold as {@link GameModel}s
+ * without the garbage collector dominating.
+ * <p>
+ * Each game occupies a fixed size slot of direct memory holding its
+ * board (occupancy bits and block colours), active and next tetromino,
+ * counters and the state of its random sequence of tetrominos.  Games
+ * are read and stepped through an {@link ArenaGame}, a flyweight that is
+ * moved between slots and applies the same rules as {@link Game}.
+ * Memory is allocated in chunks of at most 2GB, so the number of games
+ * is bound only by available memory (see <tt>-XX:MaxDirectMemorySize</tt>).
+ */
+public class GameArena {
+
+    private static final int MAX_CHUNK_BYTES = Integer.MAX_VALUE - 7;
+
+    /*
+     * Slot layout, in bytes from the start of the slot
+     */
+    static final int STATE = 0;
+    static final int SCORE = 4;
+    static final int LINES = 8;
+    static final int LEVEL = 12;
+    static final int PIECES = 16;
+    static final int ACTIVE_SHAPE = 20;
+    static final int ACTIVE_ROTATION = 21;
+    static final int NEXT_SHAPE = 22;
+    static final int ACTIVE_X = 24;
+    static final int ACTIVE_Y = 28;
+    static final int RANDOM = 32;
+    static final int CLEARS = 40;
+    static final int ROWS = CLEARS + (4 * Score.MAX_LINES_CLEARED);
+
+    private final int capacity;
+    private final int width;
+    private final int height;
+    private final int words;
+    private final int colours;
+    private final int slotSize;
+    private final int slotsPerChunk;
+    private final ByteBuffer[] chunks;
+
+    /**
+     * @param capacity the number of games
+     * @param width of the board of every game
+     * @param height of the board of every game
+     */
+    public GameArena(int capacity, int width, int height) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Arena must hold at least one game: " + capacity);
+        }
+        if ((width < Game.MIN_WIDTH) || (height < Game.MIN_HEIGHT)) {
+            throw new IllegalArgumentException("Board must be at least " + Game.MIN_WIDTH + "x" + Game.MIN_HEIGHT + ": " + width + "x" + height);
+        }
+        this.capacity = capacity;
+        this.width = width;
+        this.height = height;
+        this.words = (width + Long.SIZE - 1) / Long.SIZE;
+        int rows = Bitboard.HIDDEN_ROWS + height;
+        this.colours = ROWS + (rows * words * Long.BYTES);
+        this.slotSize = align(colours + (rows * width));
+        this.slotsPerChunk = MAX_CHUNK_BYTES / slotSize;
+        this.chunks = new ByteBuffer[(capacity + slotsPerChunk - 1) / slotsPerChunk];
+        for (int i = 0; i < chunks.length; i++) {
+            int slots = Math.min(slotsPerChunk, capacity - (i * slotsPerChunk));
+            chunks[i] = ByteBuffer.allocateDirect(slots * slotSize).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * @return a new accessor of the games in this arena.  Accessors are
+     *         not thread safe, but any number may access different games
+     *         concurrently.
+     */
+    public ArenaGame game() {
+        return new ArenaGame(this);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /**
+     * @return the bytes of memory each game occupies
+     */
+    public int slotSize() {
+        return slotSize;
+    }
+
+    int words() {
+        return words;
+    }
+
+    /**
+     * @return the offset of the colours of the blocks within a slot
+     */
+    int colours() {
+        return colours;
+    }
+
+    /*
+     * Accessors use only absolute gets and puts, which leave the shared
+     * buffers unchanged, so need no views of their own
+     */
+    ByteBuffer chunkOf(int slot) {
+        return chunks[slot / slotsPerChunk];
+    }
+
+    int offsetOf(int slot) {
+        return (slot % slotsPerChunk) * slotSize;
+    }
+
+    private static int align(int size) {
+        return (size + Long.BYTES - 1) & -Long.BYTES;
+    }
+}
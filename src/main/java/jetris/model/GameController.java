@@ -1,5 +1,16 @@
 package jetris.model;
 
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jetris.metrics.GravityTickEvent;
+import jetris.metrics.LineClearEvent;
+import jetris.metrics.ListenerDispatchEvent;
+import jetris.metrics.PieceLockEvent;
+import jetris.model.GameControllerMetrics.Command;
 import jetris.model.GameModel.GameState;
 
 /**
@@ -7,34 +18,81 @@ import jetris.model.GameModel.GameState;
  * the model and the view.  Messages can flow in both
  * directions.  Messages from the model to the view are
  * sent via the {@link GameModelListener model listener}.
+ * <p>
+ * The activity of the controller can be monitored over JMX once
+ * {@link #registerMBean() registered}.
  */
 public class GameController {
 
+    private static final AtomicInteger IDS = new AtomicInteger();
+
     private final GameModel model;
 
     private final GameModelListener modelListener;
 
     private final GameClock clock;
 
+    private final GameControllerMetrics metrics;
+
+    private ObjectName objectName;
+
     public GameController(GameModelListener modelListener, GameClock clock) {
+        this(modelListener, clock, GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT);
+    }
+
+    /**
+     * @param width of the board in columns
+     * @param height of the board in rows
+     */
+    public GameController(GameModelListener modelListener, GameClock clock, int width, int height) {
         this.modelListener = modelListener;
         this.clock = clock;
-        model = new GameModel();
+        metrics = new GameControllerMetrics(clock);
+        model = new GameModel(width, height, new RecordedGameEvents(metrics));
+        metrics.monitor(model);
+    }
+
+    public GameControllerMXBean metrics() {
+        return metrics;
+    }
+
+    /**
+     * Registers the metrics of this controller with the platform MBean
+     * server, under <tt>jetris:type=GameController,id=&lt;n&gt;</tt>
+     * @return the name registered
+     */
+    public synchronized ObjectName registerMBean() throws JMException {
+        if (objectName == null) {
+            ObjectName name = new ObjectName("jetris:type=GameController,id=" + IDS.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+            objectName = name;
+        }
+        return objectName;
+    }
+
+    public synchronized void unregisterMBean() throws JMException {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
     }
 
     public void moveLeft() {
+        metrics.commandProcessed(Command.MOVE_LEFT);
         if (model.moveActiveTetrominoLeft()) {
             updateModelListener();
         }
     }
 
     public void moveRight() {
+        metrics.commandProcessed(Command.MOVE_RIGHT);
         if (model.moveActiveTetrominoRight()) {
             updateModelListener();
         }
     }
 
     public void moveDown() {
+        metrics.commandProcessed(Command.MOVE_DOWN);
         if (model.moveActiveTetrominoDown()) {
             updateModelListener();
             if (model.state() == GameState.ENDED) {
@@ -44,6 +102,7 @@ public class GameController {
     }
 
     public void dropDown() {
+        metrics.commandProcessed(Command.DROP_DOWN);
         if (model.dropActiveTetrominoDown()) {
             updateModelListener();
             if (model.state() == GameState.ENDED) {
@@ -53,49 +112,114 @@ public class GameController {
     }
 
     public void rotateLeft() {
+        metrics.commandProcessed(Command.ROTATE_LEFT);
         if (model.rotateActiveTetrominoLeft()) {
             updateModelListener();
         }
     }
 
     public void rotateRight() {
+        metrics.commandProcessed(Command.ROTATE_RIGHT);
         if (model.rotateActiveTetrominoRight()) {
             updateModelListener();
         }
     }
 
     public void startGame() {
-        model.start();
+        startGame(new RandomTetrominoFactory());
+    }
+
+    /**
+     * Starts a game of the given tetrominos, e.g. the sequence of a seed
+     * to replay a recorded game
+     */
+    void startGame(TetrominoFactory tetrominoFactory) {
+        metrics.commandProcessed(Command.START);
+        model.start(tetrominoFactory);
         updateModelListener();
         clock.start(model, () -> handleTick());
     }
 
     private void handleTick() {
+        GravityTickEvent event = new GravityTickEvent();
+        event.begin();
+        metrics.gravityTicked();
         if (!model.moveActiveTetrominoDown()) {
             clock.stop();
         }
         updateModelListener();
+        if (event.shouldCommit()) {
+            event.level = model.level();
+            event.commit();
+        }
     }
 
     public void endGame() {
+        metrics.commandProcessed(Command.END);
         model.end();
         updateModelListener();
         clock.stop();
     }
 
     public void pauseGame() {
+        metrics.commandProcessed(Command.PAUSE);
         model.pause();
         updateModelListener();
         clock.pause();
     }
 
     public void resumeGame() {
+        metrics.commandProcessed(Command.RESUME);
         model.resume();
         updateModelListener();
         clock.resume();
     }
 
     private void updateModelListener() {
+        ListenerDispatchEvent event = new ListenerDispatchEvent();
+        event.begin();
+        long start = System.nanoTime();
         modelListener.modelChanged(model);
+        metrics.listenerInvoked(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.listener = modelListener.getClass();
+            event.state = model.state().name();
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits the events of the game played to Flight Recorder, as well as
+     * counting them.  Only games played through a controller are recorded,
+     * not the many simulated by bots.
+     */
+    private static final class RecordedGameEvents implements GameEvents {
+
+        private final GameEvents metrics;
+
+        RecordedGameEvents(GameEvents metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void pieceLocked(int pieces) {
+            metrics.pieceLocked(pieces);
+            PieceLockEvent event = new PieceLockEvent();
+            if (event.shouldCommit()) {
+                event.pieces = pieces;
+                event.commit();
+            }
+        }
+
+        @Override
+        public void linesCleared(int count, int level) {
+            metrics.linesCleared(count, level);
+            LineClearEvent event = new LineClearEvent();
+            if (event.shouldCommit()) {
+                event.rows = count;
+                event.level = level;
+                event.commit();
+            }
+        }
     }
 }
@@ -0,0 +1,41 @@
+package jetris.model;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing the activity of a {@link GameController}
+ */
+public interface GameControllerMXBean {
+
+    String getState();
+
+    /**
+     * @return the number of each type of command received, whether or not
+     *         it changed the game
+     */
+    Map<String, Long> getCommandsProcessed();
+
+    long getGravityTicks();
+
+    long getPiecesLocked();
+
+    long getLinesCleared();
+
+    long getListenerInvocations();
+
+    double getListenerMeanLatencyMicros();
+
+    double getListener99thPercentileLatencyMicros();
+
+    double getListenerMaxLatencyMicros();
+
+    /**
+     * @return the number of ticks fired by the clock, or -1 if the clock
+     *         does not record tick statistics
+     */
+    long getClockTicks();
+
+    double getClockMeanJitterMillis();
+
+    double getClockMaxJitterMillis();
+}
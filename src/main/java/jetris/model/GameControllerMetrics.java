@@ -0,0 +1,141 @@
+package jetris.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import jetris.metrics.LatencyHistogram;
+
+/**
+ * Counts the activity of a game controller.  Counters are striped
+ * ({@link LongAdder}) so that recording does not contend between the
+ * threads that drive the game.
+ */
+class GameControllerMetrics implements GameControllerMXBean, GameEvents {
+
+    enum Command {
+        START,
+        END,
+        PAUSE,
+        RESUME,
+        MOVE_LEFT,
+        MOVE_RIGHT,
+        MOVE_DOWN,
+        DROP_DOWN,
+        ROTATE_LEFT,
+        ROTATE_RIGHT
+    }
+
+    private final LongAdder[] commands = new LongAdder[Command.values().length];
+    private final LongAdder gravityTicks = new LongAdder();
+    private final LongAdder piecesLocked = new LongAdder();
+    private final LongAdder linesCleared = new LongAdder();
+    private final LatencyHistogram listenerLatency = new LatencyHistogram();
+    private final GameClock clock;
+    private GameModel model;
+
+    GameControllerMetrics(GameClock clock) {
+        this.clock = clock;
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = new LongAdder();
+        }
+    }
+
+    void monitor(GameModel model) {
+        this.model = model;
+    }
+
+    void commandProcessed(Command command) {
+        commands[command.ordinal()].increment();
+    }
+
+    void gravityTicked() {
+        gravityTicks.increment();
+    }
+
+    void listenerInvoked(long latencyNanos) {
+        listenerLatency.record(latencyNanos);
+    }
+
+    @Override
+    public void pieceLocked(int pieces) {
+        piecesLocked.increment();
+    }
+
+    @Override
+    public void linesCleared(int count, int level) {
+        linesCleared.add(count);
+    }
+
+    @Override
+    public String getState() {
+        return model.state().name();
+    }
+
+    @Override
+    public Map<String, Long> getCommandsProcessed() {
+        Map<String, Long> processed = new LinkedHashMap<>();
+        for (Command command : Command.values()) {
+            processed.put(command.name(), commands[command.ordinal()].sum());
+        }
+        return processed;
+    }
+
+    @Override
+    public long getGravityTicks() {
+        return gravityTicks.sum();
+    }
+
+    @Override
+    public long getPiecesLocked() {
+        return piecesLocked.sum();
+    }
+
+    @Override
+    public long getLinesCleared() {
+        return linesCleared.sum();
+    }
+
+    @Override
+    public long getListenerInvocations() {
+        return listenerLatency.count();
+    }
+
+    @Override
+    public double getListenerMeanLatencyMicros() {
+        return listenerLatency.mean(TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public double getListener99thPercentileLatencyMicros() {
+        return listenerLatency.percentile(99, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public double getListenerMaxLatencyMicros() {
+        return listenerLatency.max(TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public long getClockTicks() {
+        TickStatistics statistics = tickStatistics();
+        return (statistics != null) ? statistics.ticks() : -1;
+    }
+
+    @Override
+    public double getClockMeanJitterMillis() {
+        TickStatistics statistics = tickStatistics();
+        return (statistics != null) ? statistics.meanJitter(TimeUnit.MILLISECONDS) : 0;
+    }
+
+    @Override
+    public double getClockMaxJitterMillis() {
+        TickStatistics statistics = tickStatistics();
+        return (statistics != null) ? statistics.maxJitter(TimeUnit.MILLISECONDS) : 0;
+    }
+
+    private TickStatistics tickStatistics() {
+        return (clock instanceof PeriodicGameClock) ? ((PeriodicGameClock) clock).tickStatistics() : null;
+    }
+}
@@ -0,0 +1,133 @@
+package jetris.model;
+
+import com.google.common.collect.ImmutableList;
+
+import jetris.model.GameModel.GameState;
+
+/**
+ * A game as an environment for reinforcement learning: each
+ * {@link #step step} takes an {@link Action} and returns the resulting
+ * observation, the reward (the points scored by the action) and whether
+ * the episode is done.
+ * <p>
+ * Observations are the cells of the board, row by row from the top, each
+ * {@link #EMPTY}, {@link #FIXED} or {@link #ACTIVE}.  An episode is done
+ * once the game ends, or after a maximum number of steps so that a
+ * player that never drops tetrominos cannot play forever.
+ *
+ * @see VectorGameEnvironment
+ */
+public class GameEnvironment {
+
+    public static final byte EMPTY = 0;
+
+    public static final byte FIXED = 1;
+
+    public static final byte ACTIVE = 2;
+
+    private final GameModel model;
+
+    private final int maxSteps;
+
+    private int steps;
+
+    /**
+     * @param maxSteps the number of steps after which an episode is done
+     */
+    public GameEnvironment(int width, int height, int maxSteps) {
+        this.model = new GameModel(width, height);
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Starts a new episode, its tetrominos the sequence of the given seed
+     * @return the initial observation
+     */
+    public byte[] reset(long seed) {
+        model.start(new SeededTetrominoFactory(seed));
+        steps = 0;
+        return observe();
+    }
+
+    public Step step(Action action) {
+        if (model.state() == GameState.INITIAL) {
+            throw new IllegalStateException("Environment has not been reset");
+        }
+        int score = model.score();
+        switch (action) {
+          case LEFT: model.moveActiveTetrominoLeft(); break;
+          case RIGHT: model.moveActiveTetrominoRight(); break;
+          case ROTATE_LEFT: model.rotateActiveTetrominoLeft(); break;
+          case ROTATE_RIGHT: model.rotateActiveTetrominoRight(); break;
+          case DOWN: model.moveActiveTetrominoDown(); break;
+          default:
+              assert action == Action.DROP;
+              model.dropActiveTetrominoDown();
+        }
+        steps++;
+        return new Step(observe(), model.score() - score, (model.state() == GameState.ENDED) || (steps >= maxSteps));
+    }
+
+    /**
+     * @return the game being played, e.g. to render it
+     */
+    public GameModel model() {
+        return model;
+    }
+
+    /**
+     * @return the number of cells of each observation
+     */
+    public int observationSize() {
+        return model.width() * model.height();
+    }
+
+    private byte[] observe() {
+        Game game = model.game();
+        Bitboard board = game.board();
+        byte[] observation = new byte[observationSize()];
+        for (int y = 0; y < board.height(); y++) {
+            for (int x = 0; x < board.width(); x++) {
+                if (board.isOccupied(x, y)) {
+                    observation[(y * board.width()) + x] = FIXED;
+                }
+            }
+        }
+        ImmutableList<Block> blocks = game.activeTetromino().blocks();
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            if (block.y() >= 0) {
+                observation[(block.y() * board.width()) + block.x()] = ACTIVE;
+            }
+        }
+        return observation;
+    }
+
+    /**
+     * The outcome of a step
+     */
+    public static final class Step extends GameObject {
+
+        private final byte[] observation;
+        private final int reward;
+        private final boolean done;
+
+        Step(byte[] observation, int reward, boolean done) {
+            this.observation = observation;
+            this.reward = reward;
+            this.done = done;
+        }
+
+        public byte[] observation() {
+            return observation;
+        }
+
+        public int reward() {
+            return reward;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+    }
+}
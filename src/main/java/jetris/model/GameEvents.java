@@ -0,0 +1,32 @@
+package jetris.model;
+
+/**
+ * Receives notable events from within a game
+ */
+interface GameEvents {
+
+    GameEvents NONE = new GameEvents() {
+
+        @Override
+        public void pieceLocked(int pieces) {
+            // ignored
+        }
+
+        @Override
+        public void linesCleared(int count, int level) {
+            // ignored
+        }
+    };
+
+    /**
+     * The active tetromino has been fixed to the board
+     * @param pieces the number of tetrominos fixed so far
+     */
+    void pieceLocked(int pieces);
+
+    /**
+     * One or more completed lines have been removed from the board
+     * @param level the level they were cleared at
+     */
+    void linesCleared(int count, int level);
+}
@@ -0,0 +1,181 @@
+package jetris.model;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fixed timestep game loop.  A single thread advances the game in
+ * logical steps of constant duration: each step first applies the
+ * commands (e.g. key presses) submitted since the previous step and
+ * then advances gravity by the step duration.  As all commands and
+ * ticks execute on the loop thread, rendering can proceed independently
+ * at the display rate.
+ * <p>
+ * Should the loop fall behind (e.g. the host is under load) at most
+ * {@link #MAX_STEPS_PER_ITERATION} steps are run back to back before the
+ * backlog is dropped, rather than spiralling further behind.
+ */
+public class GameLoop implements GameClock, Executor {
+
+    static final int MAX_STEPS_PER_ITERATION = 5;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GameLoop.class);
+
+    private final long step;
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong droppedSteps = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean isRunning;
+    private GameModel model;
+    private Runnable task;
+    private boolean isTicking;
+    private boolean isPaused;
+    private long untilNextTick;
+
+    public GameLoop(int updatesPerSecond) {
+        if (updatesPerSecond <= 0) {
+            throw new IllegalArgumentException("Updates per second must be positive: " + updatesPerSecond);
+        }
+        this.step = TimeUnit.SECONDS.toNanos(1) / updatesPerSecond;
+        this.thread = new Thread(() -> run(), "game-loop");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the loop thread
+     */
+    public synchronized void begin() {
+        if (!isRunning) {
+            isRunning = true;
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the loop thread, discarding any outstanding commands
+     */
+    public void shutdown() {
+        isRunning = false;
+        thread.interrupt();
+    }
+
+    /**
+     * Submits a command to be executed on the loop thread at the start of
+     * the next step
+     */
+    @Override
+    public void execute(Runnable command) {
+        commands.add(command);
+    }
+
+    @Override
+    public synchronized void start(GameModel context, Runnable tickTask) {
+        this.model = context;
+        this.task = tickTask;
+        this.isTicking = true;
+        this.isPaused = false;
+        this.untilNextTick = 0;
+    }
+
+    @Override
+    public synchronized void stop() {
+        isTicking = false;
+        isPaused = false;
+    }
+
+    @Override
+    public synchronized void pause() {
+        if (isTicking) {
+            isTicking = false;
+            isPaused = true;
+        }
+    }
+
+    @Override
+    public synchronized void resume() {
+        if (isPaused) {
+            isPaused = false;
+            isTicking = true;
+        }
+    }
+
+    /**
+     * @return the number of logical steps executed
+     */
+    public long updates() {
+        return updates.get();
+    }
+
+    /**
+     * @return the number of logical steps dropped because the loop fell
+     *         behind
+     */
+    public long droppedSteps() {
+        return droppedSteps.get();
+    }
+
+    private void run() {
+        long previous = System.nanoTime();
+        long lag = 0;
+        while (isRunning) {
+            long now = System.nanoTime();
+            lag += now - previous;
+            previous = now;
+            for (int i = 0; (i < MAX_STEPS_PER_ITERATION) && (lag >= step); i++) {
+                update();
+                lag -= step;
+            }
+            if (lag >= step) {
+                droppedSteps.addAndGet(lag / step);
+                lag %= step;
+            }
+            sleep(step - lag);
+        }
+    }
+
+    void update() {
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            execute(command, "Command");
+        }
+        if (advanceGravity()) {
+            execute(task, "Tick");
+        }
+        updates.incrementAndGet();
+    }
+
+    private synchronized boolean advanceGravity() {
+        if (!isTicking) {
+            return false;
+        }
+        boolean isTickDue = (untilNextTick <= 0);
+        if (isTickDue) {
+            untilNextTick += TimeUnit.MILLISECONDS.toNanos(Gravity.period(model.level()));
+        }
+        untilNextTick -= step;
+        return isTickDue;
+    }
+
+    private static void execute(Runnable runnable, String description) {
+        try {
+            runnable.run();
+        } catch (RuntimeException e) {
+            LOGGER.warn(description + " threw an exception", e);
+        }
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            // woken by shutdown
+        }
+    }
+}
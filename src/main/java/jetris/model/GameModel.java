@@ -24,15 +24,68 @@ public class GameModel extends GameObject {
         ENDED
     }
 
+    public static final int DEFAULT_WIDTH = 10;
+
+    public static final int DEFAULT_HEIGHT = 17;
+
+    public static final int MIN_WIDTH = Game.MIN_WIDTH;
+
+    public static final int MIN_HEIGHT = Game.MIN_HEIGHT;
+
     private GameState state = GameState.INITIAL;
 
+    private final GameEvents events;
+
+    private final int width;
+
+    private final int height;
+
     private Game game;
 
+    public GameModel() {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+    }
+
+    /**
+     * @param width of the board in columns, at least 4
+     * @param height of the board in rows, at least 2
+     */
+    public GameModel(int width, int height) {
+        this(width, height, GameEvents.NONE);
+    }
+
+    GameModel(int width, int height, GameEvents events) {
+        if ((width < Game.MIN_WIDTH) || (height < Game.MIN_HEIGHT)) {
+            throw new IllegalArgumentException("Board must be at least " + Game.MIN_WIDTH + "x" + Game.MIN_HEIGHT + ": " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.events = events;
+    }
+
     public GameState state() {
         return state;
     }
 
-    public ImmutableList<Block> blocks() {
+    /**
+     * @return the number of columns of the board
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * @return the number of rows of the board
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * @return a snapshot of the blocks, taken under the lock the model is
+     *         changed under so that it may be rendered on another thread
+     */
+    public synchronized ImmutableList<Block> blocks() {
         return game.blocks();
     }
 
@@ -48,13 +101,41 @@ public class GameModel extends GameObject {
         return game.score();
     }
 
+    public int pieces() {
+        return game.pieces();
+    }
+
+    /**
+     * @param linesCleared 1 for singles, up to 4 for tetrises
+     * @return the number of times the given number of lines were cleared
+     *         by a single tetromino
+     */
+    public int clears(int linesCleared) {
+        return game.clears(linesCleared);
+    }
+
+    /**
+     * @return the value of a feature of the board, e.g. its holes
+     */
+    public int feature(Feature feature) {
+        return game.feature(feature);
+    }
+
     public List<Block> nextTetromino() {
         return game.nextTetromino();
     }
 
+    Game game() {
+        return game;
+    }
+
     synchronized void start() {
+        start(new RandomTetrominoFactory());
+    }
+
+    synchronized void start(TetrominoFactory tetrominoFactory) {
         state = GameState.ACTIVE;
-        game = new Game(new RandomTetrominoFactory());
+        game = new Game(tetrominoFactory, width, height, events);
     }
 
     synchronized void end() {
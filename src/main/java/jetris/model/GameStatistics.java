@@ -0,0 +1,113 @@
+package jetris.model;
+
+import java.util.stream.Collector;
+
+import jetris.metrics.Distribution;
+
+/**
+ * Distributions of the outcomes of many games: score, lines, level
+ * reached and pieces survived, along with the mix of line clears
+ * (singles through to tetrises).
+ * <p>
+ * Statistics are not thread safe.  Workers playing games in parallel each
+ * record into their own statistics, without locking, and
+ * {@link #merge merge} them once finished, or collect a stream of games
+ * with {@link #collector()}.  Memory use is fixed regardless of the
+ * number of games recorded.
+ */
+public class GameStatistics {
+
+    private final Distribution scores = new Distribution();
+    private final Distribution lines = new Distribution();
+    private final Distribution levels = new Distribution();
+    private final Distribution pieces = new Distribution();
+    private final long[] clears = new long[Score.MAX_LINES_CLEARED + 1];
+
+    /**
+     * @return collects the final models of games into statistics,
+     *         merging the statistics of each thread of a parallel stream
+     */
+    public static Collector<GameModel, ?, GameStatistics> collector() {
+        return Collector.of(GameStatistics::new,
+                            GameStatistics::record,
+                            GameStatistics::merge,
+                            Collector.Characteristics.UNORDERED,
+                            Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Records the outcome of a game, typically once it has ended
+     */
+    public void record(GameModel model) {
+        scores.record(model.score());
+        lines.record(model.lines());
+        levels.record(model.level());
+        pieces.record(model.pieces());
+        for (int linesCleared = 1; linesCleared <= Score.MAX_LINES_CLEARED; linesCleared++) {
+            clears[linesCleared] += model.clears(linesCleared);
+        }
+    }
+
+    /**
+     * Adds the games recorded by other statistics to these
+     * @return these statistics
+     */
+    public GameStatistics merge(GameStatistics other) {
+        scores.merge(other.scores);
+        lines.merge(other.lines);
+        levels.merge(other.levels);
+        pieces.merge(other.pieces);
+        for (int linesCleared = 1; linesCleared <= Score.MAX_LINES_CLEARED; linesCleared++) {
+            clears[linesCleared] += other.clears[linesCleared];
+        }
+        return this;
+    }
+
+    public long games() {
+        return scores.count();
+    }
+
+    public Distribution scores() {
+        return scores;
+    }
+
+    public Distribution lines() {
+        return lines;
+    }
+
+    public Distribution levels() {
+        return levels;
+    }
+
+    public Distribution pieces() {
+        return pieces;
+    }
+
+    /**
+     * @param linesCleared 1 for singles, up to 4 for tetrises
+     * @return the number of times, over all games, the given number of
+     *         lines were cleared by a single tetromino
+     */
+    public long clears(int linesCleared) {
+        return clears[linesCleared];
+    }
+
+    /**
+     * @return the proportion of line clears that cleared the given number
+     *         of lines, between 0 and 1
+     */
+    public double clearRatio(int linesCleared) {
+        long total = 0;
+        for (int i = 1; i <= Score.MAX_LINES_CLEARED; i++) {
+            total += clears[i];
+        }
+        return (total == 0) ? 0 : (clears[linesCleared] / (double) total);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games=%d%nscore: %s%nlines: %s%nlevel: %s%npieces: %s%nclears: single=%d, double=%d, triple=%d, tetris=%d",
+                             games(), scores, lines, levels, pieces,
+                             clears[1], clears[2], clears[3], clears[4]);
+    }
+}
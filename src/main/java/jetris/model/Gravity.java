@@ -0,0 +1,9 @@
+package jetris.model;
+
+class Gravity {
+
+    static long period(int level) {
+        // interval between pulses (in milliseconds) reduced by 80ms per level
+        return 1080 - (80 * level);
+    }
+}
@@ -0,0 +1,84 @@
+package jetris.model;
+
+/**
+ * Places each tetromino where the weighted sum of the {@link Feature}s of
+ * the resulting board is greatest, looking no further ahead.
+ * <p>
+ * Placements are generated and their features held in reused arrays, so a
+ * bot is not thread safe; each thread playing games has its own.
+ */
+final class GreedyBot implements Bot {
+
+    /**
+     * Weights, in the order of the features, that play reasonably well
+     * without tuning
+     */
+    static final double[] DEFAULT_WEIGHTS = { 0.76, -0.51, -0.36, -0.18, 0, 0, 0 };
+
+    private final PlacementGenerator generator;
+    private final int[] features = new int[Feature.values().length];
+    private double[] weights;
+
+    GreedyBot(double[] weights, int width) {
+        if (weights.length != features.length) {
+            throw new IllegalArgumentException("Expected " + features.length + " weights: " + weights.length);
+        }
+        this.weights = weights;
+        this.generator = new PlacementGenerator(width);
+    }
+
+    /**
+     * Changes the weights, to reuse the bot to evaluate other weights
+     */
+    void weigh(double[] weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public boolean move(Game game) {
+        int placements = generator.generate(game);
+        if (placements > 0) {
+            int best = 0;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < placements; i++) {
+                double value = evaluate(game, generator.placement(i));
+                if (value > bestValue) {
+                    best = i;
+                    bestValue = value;
+                }
+            }
+            moveTo(game, generator.rotation(best), generator.placement(best));
+        }
+        game.dropActiveTetrominoDown();
+        return game.activateNextTetromino();
+    }
+
+    /**
+     * @return the weighted sum of the features of the board were the
+     *         tetromino fixed to it and any completed lines removed
+     */
+    double evaluate(Game game, Tetromino placement) {
+        game.evaluate(placement, features);
+        double value = 0;
+        for (int i = 0; i < features.length; i++) {
+            value += weights[i] * features[i];
+        }
+        return value;
+    }
+
+    /**
+     * Rotates and moves the active tetromino of a game to above one of the
+     * placements of a {@link PlacementGenerator}, ready to be dropped
+     */
+    static void moveTo(Game game, int rotation, Tetromino placement) {
+        for (int i = 0; i < rotation; i++) {
+            game.rotateActiveTetrominoRight();
+        }
+        while ((game.activeTetromino().x() > placement.x()) && game.moveActiveTetrominoLeft()) {
+            // moving left
+        }
+        while ((game.activeTetromino().x() < placement.x()) && game.moveActiveTetrominoRight()) {
+            // moving right
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package jetris.model;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A hashed timer wheel - a single thread that drives any number of
+ * one-shot timers with O(1) schedule and cancel.
+ * <p>
+ * Timers are hashed into a ring of buckets by their deadline, so the
+ * worker only ever touches the bucket for the current tick.  Timers are
+ * executed on the worker thread and should therefore be short lived.
+ * Accuracy is bounded by the tick duration.
+ */
+public class HashedTimerWheel {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashedTimerWheel.class);
+
+    private static final AtomicInteger WHEEL_COUNT = new AtomicInteger();
+
+    private final long tickDuration;
+
+    private final Bucket[] buckets;
+
+    private final int mask;
+
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final Thread worker;
+
+    private final Object lifecycle = new Object();
+
+    private volatile boolean isStarted;
+
+    private volatile boolean isShutdown;
+
+    private volatile long startTime;
+
+    private long tick;
+
+    public HashedTimerWheel() {
+        this(10, TimeUnit.MILLISECONDS, 512);
+    }
+
+    public HashedTimerWheel(long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if ((tickDuration <= 0) || (ticksPerWheel <= 0)) {
+            throw new IllegalArgumentException("Tick duration and ticks per wheel must be positive");
+        }
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.buckets = createBuckets(ticksPerWheel);
+        this.mask = buckets.length - 1;
+        this.worker = new Thread(() -> run(), "timer-wheel-" + WHEEL_COUNT.incrementAndGet());
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * Schedules the task for a single execution after the given delay
+     * @return the {@link Timeout handle} that can be used to cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (isShutdown) {
+            throw new IllegalStateException("Timer wheel has been shut down");
+        }
+        start();
+        long deadline = (System.nanoTime() + unit.toNanos(Math.max(0, delay))) - startTime;
+        Timeout timeout = new Timeout(this, task, deadline);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the worker thread.  Timers that have not yet expired are
+     * discarded.
+     */
+    public void shutdown() {
+        isShutdown = true;
+        worker.interrupt();
+    }
+
+    private void start() {
+        if (!isStarted) {
+            synchronized (lifecycle) {
+                if (!isStarted) {
+                    startTime = System.nanoTime();
+                    worker.start();
+                    isStarted = true;
+                }
+            }
+        }
+    }
+
+    private void run() {
+        while (!isShutdown) {
+            long deadline = waitForNextTick();
+            if (deadline < 0) {
+                break;
+            }
+            removeCancelledTimeouts();
+            transferPendingTimeoutsToBuckets();
+            buckets[(int) (tick & mask)].expireTimeouts(deadline);
+            tick++;
+        }
+    }
+
+    /*
+     * Sleeps until the start of the next tick, returning the time
+     * (relative to the start time) of that tick or -1 if shut down
+     */
+    private long waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+        while (true) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepTime = deadline - currentTime;
+            if (sleepTime <= 0) {
+                return currentTime;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepTime);
+            } catch (InterruptedException e) {
+                if (isShutdown) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferPendingTimeoutsToBuckets() {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long expiryTick = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (expiryTick - tick) / buckets.length;
+            // timeouts already due are placed in the current bucket
+            buckets[(int) (Math.max(expiryTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private static Bucket[] createBuckets(int ticksPerWheel) {
+        // round up to a power of two so a tick can be hashed with a mask
+        int size = Integer.highestOneBit(ticksPerWheel);
+        if (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        Bucket[] buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket();
+        }
+        return buckets;
+    }
+
+    /**
+     * Handle for a scheduled task
+     */
+    public static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedTimerWheel wheel;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // following are only accessed by the worker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout previous;
+
+        private Timeout(HashedTimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task
+         * @return <tt>true</tt> if the task was cancelled before it was
+         *         executed, <tt>false</tt> otherwise.
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                wheel.cancelledTimeouts.add(this);
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(PENDING, EXPIRED)) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Timer task threw an exception", e);
+                }
+            }
+        }
+    }
+
+    /*
+     * Doubly linked list of timeouts, only accessed by the worker thread
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void expireTimeouts(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    assert timeout.deadline <= deadline;
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.next = null;
+            timeout.previous = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package jetris.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jetris.model.Tetromino.Shape;
+
+/**
+ * Places each tetromino by Monte Carlo tree search, looking ahead over
+ * the tetrominos that might follow rather than only the one placed.
+ * <p>
+ * The tree alternates between decisions, where the active tetromino is
+ * placed at one of the placements of a {@link PlacementGenerator}, and
+ * chance, where the shape of the next tetromino but one arrives.  Each
+ * simulation copies the game, descends the tree choosing placements by
+ * their upper confidence bound and shapes at random, then plays a few
+ * more tetrominos with a {@link GreedyBot}.  A simulation is worth
+ * nothing if the game ends, and more the more lines it clears.
+ * <p>
+ * Simulations run in parallel on a fork join pool for as long as the
+ * tetromino would take to fall a row, a fraction of the gravity period
+ * of the current level.  The tree is shared without locks: counts are
+ * atomic, nodes are expanded by whichever simulation publishes them
+ * first, and a placement's visit is counted as it is chosen but its value
+ * only once its simulation ends, so that the simulations in flight lower
+ * its value (a virtual loss) and steer others elsewhere.
+ */
+final class MonteCarloBot implements Bot {
+
+    private static final Shape[] SHAPES = Shape.values();
+
+    /*
+     * Placements are tried in the order the greedy bot prefers them, so
+     * the search is no worse than greedy when it has time for few
+     * simulations
+     */
+    private static final Comparator<Chance> BY_PRIOR = (a, b) -> Double.compare(b.prior, a.prior);
+
+    private static final int ROLLOUT_PIECES = 8;
+
+    private static final double EXPLORATION = Math.sqrt(0.5);
+
+    /*
+     * Values are summed atomically as fixed point
+     */
+    private static final double SCALE = 1 << 20;
+
+    private final double budget;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Simulation> simulations;
+
+    /**
+     * @param budget the fraction of the gravity period spent choosing
+     *        each placement
+     */
+    MonteCarloBot(int width, int height, double budget, ForkJoinPool pool) {
+        this.budget = budget;
+        this.pool = pool;
+        this.simulations = ThreadLocal.withInitial(() -> new Simulation(width, height));
+    }
+
+    @Override
+    public boolean move(Game game) {
+        Decision root = new Decision();
+        long deadline = System.nanoTime() + budget(game.level());
+        pool.invoke(new Search(game, root, deadline, pool.getParallelism()));
+        Chance best = root.best();
+        if (best != null) {
+            GreedyBot.moveTo(game, best.rotation, best.placement);
+        }
+        game.dropActiveTetrominoDown();
+        return game.activateNextTetromino();
+    }
+
+    /**
+     * @return the nanoseconds spent choosing a placement at a level
+     */
+    long budget(int level) {
+        return (long) (budget * TimeUnit.MILLISECONDS.toNanos(Gravity.period(level)));
+    }
+
+    /**
+     * Runs simulations until the deadline, splitting until each task is a
+     * single worker
+     */
+    private final class Search extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Game game;
+        private final Decision root;
+        private final long deadline;
+        private final int workers;
+
+        Search(Game game, Decision root, long deadline, int workers) {
+            this.game = game;
+            this.root = root;
+            this.deadline = deadline;
+            this.workers = workers;
+        }
+
+        @Override
+        protected void compute() {
+            if (workers <= 1) {
+                Simulation simulation = simulations.get();
+                do {
+                    simulation.simulate(game, root);
+                } while (System.nanoTime() < deadline);
+            }
+            else {
+                int half = workers >>> 1;
+                invokeAll(new Search(game, root, deadline, half), new Search(game, root, deadline, workers - half));
+            }
+        }
+    }
+
+    /**
+     * The state of one worker, reused for each of its simulations
+     */
+    private static final class Simulation {
+
+        private final ChanceTetrominoFactory factory = new ChanceTetrominoFactory();
+        private final Game game;
+        private final PlacementGenerator generator;
+        private final GreedyBot bot;
+        private final List<Chance> path = new ArrayList<>();
+
+        Simulation(int width, int height) {
+            this.game = new Game(factory, width, height, GameEvents.NONE);
+            this.generator = new PlacementGenerator(width);
+            this.bot = new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, width);
+        }
+
+        void simulate(Game from, Decision root) {
+            game.copyFrom(from);
+            path.clear();
+            int pieces = game.pieces();
+            int lines = game.lines();
+            boolean isPlaying = descend(root);
+            for (int i = 0; isPlaying && (i < ROLLOUT_PIECES); i++) {
+                isPlaying = bot.move(game);
+            }
+            double value = isPlaying ? value(game.lines() - lines, game.pieces() - pieces) : 0;
+            for (int i = 0; i < path.size(); i++) {
+                path.get(i).value.addAndGet((long) (value * SCALE));
+            }
+        }
+
+        /**
+         * Descends the tree until it places the tetromino of a decision
+         * not yet expanded
+         * @return <tt>false</tt> if the game ended on the way
+         */
+        private boolean descend(Decision decision) {
+            Decision node = decision;
+            while (true) {
+                Chance[] children = node.children.get();
+                boolean isLeaf = (children == null);
+                if (isLeaf) {
+                    children = expand(node);
+                }
+                if (children.length == 0) {
+                    return true;
+                }
+                Chance chance = node.select(children);
+                path.add(chance);
+                Shape shape = SHAPES[ThreadLocalRandom.current().nextInt(SHAPES.length)];
+                factory.next(shape);
+                GreedyBot.moveTo(game, chance.rotation, chance.placement);
+                game.dropActiveTetrominoDown();
+                if (!game.activateNextTetromino()) {
+                    return false;
+                }
+                if (isLeaf) {
+                    return true;
+                }
+                node = chance.outcome(shape);
+            }
+        }
+
+        private Chance[] expand(Decision node) {
+            int placements = generator.generate(game);
+            Chance[] children = new Chance[placements];
+            for (int i = 0; i < placements; i++) {
+                Tetromino placement = generator.placement(i);
+                children[i] = new Chance(placement, generator.rotation(i), bot.evaluate(game, placement));
+            }
+            Arrays.sort(children, BY_PRIOR);
+            if (node.children.compareAndSet(null, children)) {
+                return children;
+            }
+            return node.children.get();
+        }
+
+        /*
+         * Between 0 and 1: surviving is worth something, and each line
+         * cleared more, up to as many as the blocks placed could fill
+         */
+        private double value(int lines, int pieces) {
+            double maxLines = (double) (pieces * 4) / game.width();
+            return Math.min(1, (1 + lines) / (1 + maxLines));
+        }
+    }
+
+    /**
+     * A tetromino to be placed
+     */
+    private static final class Decision {
+
+        private final AtomicInteger visits = new AtomicInteger();
+        private final AtomicReference<Chance[]> children = new AtomicReference<>();
+
+        /**
+         * Chooses the placement with the greatest upper confidence bound,
+         * counting a visit of it
+         */
+        Chance select(Chance[] children) {
+            double logVisits = Math.log(visits.incrementAndGet());
+            Chance selected = children[0];
+            double selectedBound = Double.NEGATIVE_INFINITY;
+            for (Chance child : children) {
+                int childVisits = child.visits.get();
+                if (childVisits == 0) {
+                    selected = child;
+                    break;
+                }
+                double bound = (child.value.get() / SCALE / childVisits) + (EXPLORATION * Math.sqrt(logVisits / childVisits));
+                if (bound > selectedBound) {
+                    selected = child;
+                    selectedBound = bound;
+                }
+            }
+            selected.visits.incrementAndGet();
+            return selected;
+        }
+
+        /**
+         * @return the placement visited most, preferring the greedy bot's
+         *         among those visited as often, or <tt>null</tt> if none
+         */
+        Chance best() {
+            Chance[] children = this.children.get();
+            Chance best = null;
+            if (children != null) {
+                for (Chance child : children) {
+                    if ((best == null) || (child.visits.get() > best.visits.get())) {
+                        best = child;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * A placement, after which the next tetromino but one arrives
+     */
+    private static final class Chance {
+
+        private final Tetromino placement;
+        private final int rotation;
+        private final AtomicInteger visits = new AtomicInteger();
+        private final AtomicLong value = new AtomicLong();
+        private final AtomicReferenceArray<Decision> outcomes = new AtomicReferenceArray<>(SHAPES.length);
+
+        private final double prior;
+
+        Chance(Tetromino placement, int rotation, double prior) {
+            this.placement = placement;
+            this.rotation = rotation;
+            this.prior = prior;
+        }
+
+        Decision outcome(Shape shape) {
+            Decision outcome = outcomes.get(shape.ordinal());
+            if (outcome == null) {
+                outcomes.compareAndSet(shape.ordinal(), null, new Decision());
+                outcome = outcomes.get(shape.ordinal());
+            }
+            return outcome;
+        }
+    }
+
+    /**
+     * Creates the shape chosen by the tree, or a random one once beyond it
+     */
+    private static final class ChanceTetrominoFactory implements TetrominoFactory {
+
+        private Shape next;
+
+        void next(Shape shape) {
+            this.next = shape;
+        }
+
+        @Override
+        public Tetromino create() {
+            Shape shape = (next != null) ? next : SHAPES[ThreadLocalRandom.current().nextInt(SHAPES.length)];
+            next = null;
+            return Tetromino.of(shape);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package jetris.model;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+
+import jetris.model.Tetromino.Shape;
+
+/**
+ * Encodes games as vectors of floats, the input of machine learning
+ * models, directly into a caller's buffers (heap or direct) without
+ * walking lists of blocks.
+ * <p>
+ * The vector of each game is, in order:
+ * <ul>
+ * <li>the occupancy of the board by fixed blocks, a cell per element row
+ *     by row from the top, 1 where occupied and 0 where empty</li>
+ * <li>the cells of the board occupied by the active tetromino, likewise</li>
+ * <li>the shape of the next tetromino, one hot in the order of the shapes
+ *     I, J, L, O, S, T and Z</li>
+ * <li>the level, lines and score</li>
+ * </ul>
+ * Batches of games are encoded one after another, {@link #size()}
+ * elements apart.  Games are encoded into a reused array, so an encoder
+ * is not thread safe.
+ */
+public class ObservationEncoder {
+
+    private static final int SHAPES = Shape.values().length;
+
+    private static final int SCALARS = 3;
+
+    private final int width;
+
+    private final int height;
+
+    private final int cells;
+
+    private final float[] encoded;
+
+    public ObservationEncoder(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.cells = width * height;
+        this.encoded = new float[(2 * cells) + SHAPES + SCALARS];
+    }
+
+    /**
+     * @return the number of elements encoding each game
+     */
+    public int size() {
+        return encoded.length;
+    }
+
+    /**
+     * @param offset the index of the first element written
+     */
+    public void encode(GameModel model, FloatBuffer into, int offset) {
+        encode(model);
+        write(into, offset);
+    }
+
+    /**
+     * Writes floats in the byte order of the buffer
+     * @param offset the index of the first byte written
+     */
+    public void encode(GameModel model, ByteBuffer into, int offset) {
+        encode(model);
+        write(into, offset);
+    }
+
+    public void encode(List<GameModel> models, FloatBuffer into, int offset) {
+        for (int i = 0; i < models.size(); i++) {
+            encode(models.get(i), into, offset + (i * size()));
+        }
+    }
+
+    public void encode(List<GameModel> models, ByteBuffer into, int offset) {
+        for (int i = 0; i < models.size(); i++) {
+            encode(models.get(i), into, offset + (i * size() * Float.BYTES));
+        }
+    }
+
+    /**
+     * Encodes the games of a range of slots of an arena
+     * @param games an accessor of the arena, left positioned on the last
+     *        game encoded
+     */
+    public void encode(ArenaGame games, int from, int to, FloatBuffer into, int offset) {
+        checkSize(games.width(), games.height());
+        for (int slot = from; slot < to; slot++) {
+            encode(games.at(slot));
+            write(into, offset + ((slot - from) * size()));
+        }
+    }
+
+    public void encode(ArenaGame games, int from, int to, ByteBuffer into, int offset) {
+        checkSize(games.width(), games.height());
+        for (int slot = from; slot < to; slot++) {
+            encode(games.at(slot));
+            write(into, offset + ((slot - from) * size() * Float.BYTES));
+        }
+    }
+
+    private void encode(GameModel model) {
+        Game game = model.game();
+        if (game == null) {
+            throw new IllegalStateException("Game has not been started");
+        }
+        checkSize(model.width(), model.height());
+        Bitboard board = game.board();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                encoded[(y * width) + x] = board.isOccupied(x, y) ? 1 : 0;
+                encoded[cells + (y * width) + x] = 0;
+            }
+        }
+        ImmutableList<Block> blocks = game.activeTetromino().blocks();
+        for (int i = 0; i < blocks.size(); i++) {
+            encodeActive(blocks.get(i).x(), blocks.get(i).y());
+        }
+        encodeScalars(game.nextShape(), game.level(), game.lines(), game.score());
+    }
+
+    private void encode(ArenaGame game) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                encoded[(y * width) + x] = game.isOccupied(x, y) ? 1 : 0;
+                encoded[cells + (y * width) + x] = 0;
+            }
+        }
+        for (int block = 0; block < 4; block++) {
+            encodeActive(game.activeBlockX(block), game.activeBlockY(block));
+        }
+        encodeScalars(game.nextShape(), game.level(), game.lines(), game.score());
+    }
+
+    private void encodeActive(int x, int y) {
+        if (y >= 0) {
+            encoded[cells + (y * width) + x] = 1;
+        }
+    }
+
+    private void encodeScalars(Shape next, int level, int lines, int score) {
+        int i = 2 * cells;
+        for (int shape = 0; shape < SHAPES; shape++) {
+            encoded[i++] = (shape == next.ordinal()) ? 1 : 0;
+        }
+        encoded[i++] = level;
+        encoded[i++] = lines;
+        encoded[i] = score;
+    }
+
+    private void checkSize(int width, int height) {
+        if ((width != this.width) || (height != this.height)) {
+            throw new IllegalArgumentException("Expected a " + this.width + "x" + this.height + " board: " + width + "x" + height);
+        }
+    }
+
+    private void write(FloatBuffer into, int offset) {
+        for (int i = 0; i < encoded.length; i++) {
+            into.put(offset + i, encoded[i]);
+        }
+    }
+
+    private void write(ByteBuffer into, int offset) {
+        for (int i = 0; i < encoded.length; i++) {
+            into.putFloat(offset + (i * Float.BYTES), encoded[i]);
+        }
+    }
+}
@@ -5,61 +5,99 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 
+/**
+ * Game clock that runs the tick task on its own thread.  The gravity
+ * interval is re-evaluated after every tick, so the game speeds up as
+ * the level rises, and each tick is scheduled relative to when the
+ * previous one was due rather than when it ran, so scheduling delays
+ * do not accumulate.
+ */
 public class PeriodicGameClock implements GameClock {
 
+    private final TickStatistics statistics = new TickStatistics();
     private ScheduledExecutorService executor;
     private Runnable task;
     private GameModel model;
-    private volatile long time;
-    private volatile long initialDelay;
+    private int generation;
+    private boolean isPaused;
+    private long deadline;
+    private long remainingDelay;
 
     @Override
-    public void start(GameModel context, Runnable tickTask) {
+    public synchronized void start(GameModel context, Runnable tickTask) {
         this.model = context;
         this.task = tickTask;
-        this.initialDelay = 0;
-        startClock();
+        this.isPaused = false;
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor();
+        }
+        deadline = now();
+        scheduleNextTick();
     }
 
     @Override
-    public void stop() {
-        executor.shutdownNow();
+    public synchronized void stop() {
+        generation++;
+        isPaused = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
     }
 
     @Override
-    public void pause() {
-        executor.shutdownNow();
-        initialDelay = period() - (System.currentTimeMillis() - time);
-        assert initialDelay >= 0;
+    public synchronized void pause() {
+        if ((executor != null) && !isPaused) {
+            generation++;
+            isPaused = true;
+            remainingDelay = Math.max(0, deadline - now());
+        }
     }
 
     @Override
-    public void resume() {
-        startClock();
+    public synchronized void resume() {
+        if ((executor != null) && isPaused) {
+            isPaused = false;
+            deadline = now() + remainingDelay;
+            scheduleNextTick();
+        }
+    }
+
+    /**
+     * @return the jitter of ticks fired by this clock
+     */
+    public TickStatistics tickStatistics() {
+        return statistics;
     }
 
     private static long now() {
-        return System.currentTimeMillis();
+        return System.nanoTime();
     }
 
-    private void startClock() {
-        this.time = now();
-        executor = Executors.newSingleThreadScheduledExecutor();
-        executor.scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                executeTask();
-            }
-        }, initialDelay, period(), TimeUnit.MILLISECONDS);
+    private void scheduleNextTick() {
+        final int tickGeneration = ++generation;
+        executor.schedule(() -> executeTask(tickGeneration), deadline - now(), TimeUnit.NANOSECONDS);
     }
 
-    private void executeTask() {
+    private void executeTask(int tickGeneration) {
+        synchronized (this) {
+            if (tickGeneration != generation) {
+                return;
+            }
+        }
+        statistics.record(now() - deadline);
         task.run();
-        time = now();
+        synchronized (this) {
+            // the task may have stopped or paused the clock
+            if (tickGeneration == generation) {
+                // missed ticks are skipped rather than fired in a burst
+                deadline = Math.max(deadline + period(), now());
+                scheduleNextTick();
+            }
+        }
     }
 
     private long period() {
-        // interval between pulses reduced by 70ms per level
-        return 1080 - (80 * model.level());
+        return TimeUnit.MILLISECONDS.toNanos(Gravity.period(model.level()));
     }
 }
@@ -0,0 +1,127 @@
+package jetris.model;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Finds every place the active tetromino of a game can be dropped to: in
+ * each of its rotations, at each column it can be moved to, where it
+ * comes to rest.
+ * <p>
+ * The columns a rotation can reach are found with a single
+ * {@link Bitboard#freeColumns} test, and all of them are then dropped
+ * together a row at a time, each column coming to rest at the first row
+ * it cannot move down from.  Generators are reused between games and
+ * turns, and are not thread safe.
+ */
+final class PlacementGenerator {
+
+    private static final int MAX_ROTATIONS = 4;
+
+    private final int words;
+    private final long[] pieceRows = new long[4];
+    private final long[] falling;
+    private final long[] free;
+    private final Tetromino[] placements;
+    private final int[] rotations;
+    private int count;
+
+    PlacementGenerator(int width) {
+        this.words = (width + Long.SIZE - 1) / Long.SIZE;
+        this.falling = new long[words];
+        this.free = new long[words];
+        this.placements = new Tetromino[MAX_ROTATIONS * width];
+        this.rotations = new int[MAX_ROTATIONS * width];
+    }
+
+    /**
+     * @return the number of placements of the active tetromino, none if
+     *         it is overlapping the fixed blocks
+     */
+    int generate(Game game) {
+        count = 0;
+        Bitboard board = game.board();
+        Tetromino rotated = game.activeTetromino();
+        for (int rotation = 0; rotation < Tetromino.rotations(rotated.shape()); rotation++) {
+            if (rotation > 0) {
+                rotated = rotated.rotateRight();
+            }
+            if (!game.isValidTetrominoPosition(rotated)) {
+                break;
+            }
+            generate(board, rotated, rotation);
+        }
+        return count;
+    }
+
+    /**
+     * @return the tetromino at rest in one of the placements
+     */
+    Tetromino placement(int i) {
+        return placements[i];
+    }
+
+    /**
+     * @return the number of times the active tetromino is rotated right
+     *         for one of the placements
+     */
+    int rotation(int i) {
+        return rotations[i];
+    }
+
+    /*
+     * The rotated tetromino can reach the columns either side of it that
+     * it fits at without interruption
+     */
+    private void generate(Bitboard board, Tetromino rotated, int rotation) {
+        int left = Integer.MAX_VALUE;
+        int top = Integer.MAX_VALUE;
+        int right = Integer.MIN_VALUE;
+        ImmutableList<Block> blocks = rotated.blocks();
+        for (int i = 0; i < blocks.size(); i++) {
+            left = Math.min(left, blocks.get(i).x());
+            right = Math.max(right, blocks.get(i).x());
+            top = Math.min(top, blocks.get(i).y());
+        }
+        for (int r = 0; r < pieceRows.length; r++) {
+            pieceRows[r] = 0;
+        }
+        for (int i = 0; i < blocks.size(); i++) {
+            pieceRows[blocks.get(i).y() - top] |= 1L << (blocks.get(i).x() - left);
+        }
+        board.freeColumns(pieceRows, (right - left) + 1, top, free);
+        for (int i = 0; i < words; i++) {
+            falling[i] = 0;
+        }
+        for (int x = left; (x >= 0) && isSet(free, x); x--) {
+            falling[x >>> 6] |= 1L << x;
+        }
+        for (int x = left + 1; (x < (words * Long.SIZE)) && isSet(free, x); x++) {
+            falling[x >>> 6] |= 1L << x;
+        }
+        for (int y = top; !isEmpty(falling); y++) {
+            board.freeColumns(pieceRows, (right - left) + 1, y + 1, free);
+            for (int i = 0; i < words; i++) {
+                for (long landed = falling[i] & ~free[i]; landed != 0; landed &= (landed - 1)) {
+                    int x = (i * Long.SIZE) + Long.numberOfTrailingZeros(landed);
+                    placements[count] = rotated.at(rotated.x() + (x - left), rotated.y() + (y - top));
+                    rotations[count] = rotation;
+                    count++;
+                }
+                falling[i] &= free[i];
+            }
+        }
+    }
+
+    private static boolean isSet(long[] columns, int x) {
+        return (columns[x >>> 6] & (1L << x)) != 0;
+    }
+
+    private boolean isEmpty(long[] columns) {
+        for (int i = 0; i < words; i++) {
+            if (columns[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -9,6 +9,6 @@ class RandomTetrominoFactory implements TetrominoFactory {
     @Override
     public Tetromino create() {
         Shape shape = Shape.values()[RandomUtils.nextInt(0, Shape.values().length)];
-        return new Tetromino(shape);
+        return Tetromino.of(shape);
     }
 }
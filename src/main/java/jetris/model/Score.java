@@ -2,6 +2,8 @@ package jetris.model;
 
 class Score {
 
+    static final int MAX_LINES_CLEARED = 4;
+
     static int softDrop(int level) {
         return level;
     }
@@ -0,0 +1,54 @@
+package jetris.model;
+
+import jetris.model.Tetromino.Shape;
+
+/**
+ * Creates the same sequence of tetrominos for the same seed, so that
+ * simulated games can be replayed and compared.
+ */
+class SeededTetrominoFactory implements TetrominoFactory {
+
+    private static final Shape[] SHAPES = Shape.values();
+
+    private long state;
+
+    SeededTetrominoFactory(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Restarts the sequence, e.g. to reuse the factory for another game
+     */
+    void reseed(long seed) {
+        this.state = seed;
+    }
+
+    @Override
+    public Tetromino create() {
+        state = next(state);
+        return Tetromino.of(shapeOf(state));
+    }
+
+    /*
+     * SplitMix64: the state advances by a constant and the output is a
+     * mix of the state, so any seed (including 0) is usable
+     */
+    static long next(long state) {
+        return state + 0x9E3779B97F4A7C15L;
+    }
+
+    static Shape shapeOf(long state) {
+        return SHAPES[(int) ((mix(state) >>> 1) % SHAPES.length)];
+    }
+
+    /**
+     * @return a well distributed function of the value, e.g. to derive
+     *         unrelated seeds from consecutive values
+     */
+    static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
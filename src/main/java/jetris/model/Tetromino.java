@@ -8,6 +8,10 @@ import static jetris.model.Block.Color.ORANGE;
 import static jetris.model.Block.Color.RED;
 import static jetris.model.Block.Color.YELLOW;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import com.google.common.collect.ImmutableList;
 
 import jetris.model.Block.Color;
@@ -52,40 +56,96 @@ final class Tetromino extends GameObject {
         Z;
     }
 
+    /*
+     * Tetrominos are immutable, so each placement of a shape (its
+     * orientation and the position of its first block) is created once
+     * and shared.  Moving or rotating a tetromino that has been in the
+     * same place before allocates nothing, on boards of up to 56 columns
+     * and rows (larger boards allocate placements beyond them).
+     */
+    private static final Map<Shape, Tetromino> INITIAL = new EnumMap<>(Shape.class);
+
+    static {
+        for (Shape shape : Shape.values()) {
+            ImmutableList<Block> blocks = blocksFor(shape);
+            INITIAL.put(shape, Orientation.of(shape, blocks).at(blocks.get(0).x(), blocks.get(0).y()));
+        }
+    }
+
     private final ImmutableList<Block> blocks;
     private final Shape shape;
+    private final transient Orientation orientation;
 
     Tetromino(Shape shape) {
         this.shape = shape;
         this.blocks = blocksFor(shape);
+        this.orientation = INITIAL.get(shape).orientation;
+    }
+
+    /**
+     * @return the shared tetromino of the given shape, in its initial
+     *         position
+     */
+    static Tetromino of(Shape shape) {
+        return INITIAL.get(shape);
+    }
+
+    /**
+     * @return the number of distinct rotations of a shape
+     */
+    static int rotations(Shape shape) {
+        return (shape == Shape.O) ? 1 : 4;
+    }
+
+    /**
+     * @return the horizontal offset of a block of a shape from its first
+     *         block, once rotated right the given number of times
+     */
+    static int offsetX(Shape shape, int rotation, int block) {
+        return orientationOf(shape, rotation).offsetsX[block];
+    }
+
+    /**
+     * @return the vertical offset of a block of a shape from its first
+     *         block, once rotated right the given number of times
+     */
+    static int offsetY(Shape shape, int rotation, int block) {
+        return orientationOf(shape, rotation).offsetsY[block];
+    }
+
+    private static Orientation orientationOf(Shape shape, int rotation) {
+        Orientation orientation = INITIAL.get(shape).orientation;
+        for (int i = 0; i < rotation; i++) {
+            orientation = orientation.rotated;
+        }
+        return orientation;
     }
 
     ImmutableList<Block> blocks() {
         return blocks;
     }
 
+    Shape shape() {
+        return shape;
+    }
+
+    /**
+     * @return this tetromino moved so that its first block is at x,y
+     */
+    Tetromino at(int x, int y) {
+        return orientation.at(x, y);
+    }
+
     Tetromino moveLeft() {
-        ImmutableList.Builder<Block> builder = ImmutableList.builder();
-        for (Block block : blocks) {
-            builder.add(block.moveLeft());
-        }
-        return new Tetromino(shape, builder.build());
+        return orientation.at(x() - 1, y());
     }
 
     Tetromino moveRight() {
-        ImmutableList.Builder<Block> builder = ImmutableList.builder();
-        for (Block block : blocks) {
-            builder.add(block.moveRight());
-        }
-        return new Tetromino(shape, builder.build());
+        return orientation.at(x() + 1, y());
     }
 
     Tetromino moveDown() {
-        ImmutableList.Builder<Block> builder = ImmutableList.builder();
-        for (Block block : blocks) {
-            builder.add(block.moveDown());
-        }
-        return new Tetromino(shape, builder.build());
+        return orientation.at(x(), y() + 1);
     }
 
     Tetromino rotateLeft() {
@@ -100,27 +160,23 @@ final class Tetromino extends GameObject {
     }
 
     private Tetromino rotate90Degrees() {
-        /*
-         * As y axis points down not up, standard transformation
-         * matrices need to be inverted. Therefore we apply 270 
-         * transform matrix to affect 90 degree turn around 
-         * first block.
-         */ 
-        int centreX = blocks.get(0).x();
-        int centreY = blocks.get(0).y();
-        ImmutableList.Builder<Block> builder = ImmutableList.builder();
-        for (Block block : blocks) {
-            int x = ((centreY - block.y()) + centreX);
-            int y = (-1 * (centreX - block.x())) + centreY;
-            builder.add(new Block(block.color(), x, y));
-        }
-        return new Tetromino(shape, builder.build());
+        return orientation.rotated.at(x(), y());
+    }
+
+    int x() {
+        return blocks.get(0).x();
+    }
+
+    int y() {
+        return blocks.get(0).y();
     }
 
     private Tetromino(Shape shape,
-                      ImmutableList<Block> blocks) {
+                      ImmutableList<Block> blocks,
+                      Orientation orientation) {
         this.shape = shape;
         this.blocks = blocks;
+        this.orientation = orientation;
     }
 
     private static ImmutableList<Block> blocksFor(Shape shape) {
@@ -151,4 +207,99 @@ final class Tetromino extends GameObject {
                                 new Block(color, x3, y3),
                                 new Block(color, x4, y4));
     }
+
+    /**
+     * A shape in one of its rotations, with the tetrominos placed so far
+     * indexed by the position of their first block, within a fixed span
+     * so that the cache is bounded however large a board is played.
+     * <p>
+     * Each column of placements is published safely, by compare and set,
+     * but the placements within it are not: the race is benign, as a
+     * tetromino is immutable (its fields final) so is seen whole or not at
+     * all, and two threads racing to create the same placement simply
+     * create equal tetrominos.
+     */
+    private static final class Orientation {
+
+        private static final int ORIGIN = 8;
+
+        private static final int SPAN = 64;
+
+        private final Shape shape;
+        private final Color color;
+        private final int[] offsetsX;
+        private final int[] offsetsY;
+        private final AtomicReferenceArray<Tetromino[]> placements = new AtomicReferenceArray<>(SPAN);
+        private Orientation rotated;
+
+        private Orientation(Shape shape, Color color, int[] offsetsX, int[] offsetsY) {
+            this.shape = shape;
+            this.color = color;
+            this.offsetsX = offsetsX;
+            this.offsetsY = offsetsY;
+        }
+
+        static Orientation of(Shape shape, ImmutableList<Block> blocks) {
+            int[] offsetsX = new int[blocks.size()];
+            int[] offsetsY = new int[blocks.size()];
+            for (int i = 0; i < blocks.size(); i++) {
+                offsetsX[i] = blocks.get(i).x() - blocks.get(0).x();
+                offsetsY[i] = blocks.get(i).y() - blocks.get(0).y();
+            }
+            Orientation first = new Orientation(shape, blocks.get(0).color(), offsetsX, offsetsY);
+            Orientation orientation = first;
+            for (int i = 1; i < ((shape == Shape.O) ? 1 : 4); i++) {
+                orientation.rotated = orientation.rotate();
+                orientation = orientation.rotated;
+            }
+            orientation.rotated = first;
+            return first;
+        }
+
+        private Orientation rotate() {
+            /*
+             * As y axis points down not up, standard transformation
+             * matrices need to be inverted. Therefore we apply 270
+             * transform matrix to affect 90 degree turn around
+             * first block.
+             */
+            int[] rotatedX = new int[offsetsX.length];
+            int[] rotatedY = new int[offsetsY.length];
+            for (int i = 0; i < offsetsX.length; i++) {
+                rotatedX[i] = -offsetsY[i];
+                rotatedY[i] = offsetsX[i];
+            }
+            return new Orientation(shape, color, rotatedX, rotatedY);
+        }
+
+        /*
+         * Placements beyond the span are created each time
+         */
+        Tetromino at(int x, int y) {
+            int column = x + ORIGIN;
+            int row = y + ORIGIN;
+            if ((column < 0) || (row < 0) || (column >= SPAN) || (row >= SPAN)) {
+                return create(x, y);
+            }
+            Tetromino[] placed = placements.get(column);
+            if (placed == null) {
+                placements.compareAndSet(column, null, new Tetromino[SPAN]);
+                placed = placements.get(column);
+            }
+            Tetromino tetromino = placed[row];
+            if (tetromino == null) {
+                tetromino = create(x, y);
+                placed[row] = tetromino;
+            }
+            return tetromino;
+        }
+
+        private Tetromino create(int x, int y) {
+            ImmutableList.Builder<Block> builder = ImmutableList.builder();
+            for (int i = 0; i < offsetsX.length; i++) {
+                builder.add(new Block(color, x + offsetsX[i], y + offsetsY[i]));
+            }
+            return new Tetromino(shape, builder.build(), this);
+        }
+    }
 }
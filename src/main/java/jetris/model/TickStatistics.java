@@ -0,0 +1,52 @@
+package jetris.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running statistics of the jitter of clock ticks, i.e. how late
+ * each tick fired relative to when it was due.
+ */
+public class TickStatistics {
+
+    private long ticks;
+    private long maxJitter;
+    private double meanJitter;
+    private double sumOfSquares;
+
+    synchronized void record(long jitterNanos) {
+        // Welford's algorithm, so variance is accurate without keeping samples
+        ticks++;
+        double delta = jitterNanos - meanJitter;
+        meanJitter += delta / ticks;
+        sumOfSquares += delta * (jitterNanos - meanJitter);
+        maxJitter = Math.max(maxJitter, jitterNanos);
+    }
+
+    public synchronized long ticks() {
+        return ticks;
+    }
+
+    public synchronized double meanJitter(TimeUnit unit) {
+        return meanJitter / unit.toNanos(1);
+    }
+
+    public synchronized double maxJitter(TimeUnit unit) {
+        return (double) maxJitter / unit.toNanos(1);
+    }
+
+    public synchronized double standardDeviation(TimeUnit unit) {
+        if (ticks < 2) {
+            return 0;
+        }
+        return Math.sqrt(sumOfSquares / (ticks - 1)) / unit.toNanos(1);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ticks=%d, jitter mean=%.3fms, max=%.3fms, stddev=%.3fms",
+                             ticks,
+                             meanJitter(TimeUnit.MILLISECONDS),
+                             maxJitter(TimeUnit.MILLISECONDS),
+                             standardDeviation(TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,104 @@
+package jetris.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game clock driven by a {@link HashedTimerWheel}.  Unlike the
+ * {@link PeriodicGameClock} no thread is created per game, so a single
+ * wheel can drive the gravity of many thousands of concurrent games.
+ */
+public class TimerWheelGameClock implements GameClock {
+
+    private static final HashedTimerWheel SHARED_WHEEL = new HashedTimerWheel();
+
+    private final HashedTimerWheel wheel;
+    private GameModel model;
+    private Runnable task;
+    private HashedTimerWheel.Timeout timeout;
+    private int generation;
+    private boolean isRunning;
+    private boolean isPaused;
+    private long nextTickTime;
+    private long remainingDelay;
+
+    /**
+     * Creates a clock driven by the wheel shared by all such clocks
+     */
+    public TimerWheelGameClock() {
+        this(SHARED_WHEEL);
+    }
+
+    public TimerWheelGameClock(HashedTimerWheel wheel) {
+        this.wheel = wheel;
+    }
+
+    @Override
+    public synchronized void start(GameModel context, Runnable tickTask) {
+        this.model = context;
+        this.task = tickTask;
+        this.isRunning = true;
+        this.isPaused = false;
+        schedule(0);
+    }
+
+    @Override
+    public synchronized void stop() {
+        isRunning = false;
+        isPaused = false;
+        cancel();
+    }
+
+    @Override
+    public synchronized void pause() {
+        if (isRunning) {
+            isRunning = false;
+            isPaused = true;
+            cancel();
+            remainingDelay = Math.max(0, nextTickTime - System.nanoTime());
+        }
+    }
+
+    @Override
+    public synchronized void resume() {
+        if (isPaused) {
+            isPaused = false;
+            isRunning = true;
+            schedule(remainingDelay);
+        }
+    }
+
+    private void schedule(long delay) {
+        final int tickGeneration = ++generation;
+        nextTickTime = System.nanoTime() + delay;
+        timeout = wheel.schedule(() -> executeTask(tickGeneration), delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void cancel() {
+        generation++;
+        if (timeout != null) {
+            timeout.cancel();
+            timeout = null;
+        }
+    }
+
+    private void executeTask(int tickGeneration) {
+        if (!isCurrent(tickGeneration)) {
+            return;
+        }
+        task.run();
+        synchronized (this) {
+            // the task may have stopped or paused the clock
+            if (isRunning && (tickGeneration == generation)) {
+                schedule(period());
+            }
+        }
+    }
+
+    private synchronized boolean isCurrent(int tickGeneration) {
+        return isRunning && (tickGeneration == generation);
+    }
+
+    private long period() {
+        return TimeUnit.MILLISECONDS.toNanos(Gravity.period(model.level()));
+    }
+}
@@ -0,0 +1,408 @@
+package jetris.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares bots by playing each the same seeded games, and ranks them by
+ * the mean number of lines they clear.
+ * <p>
+ * Every game of every bot is a task on the common fork join pool, so idle
+ * workers steal games from busy ones, and each worker has its own game
+ * and bots.  The result of each game is written to the results file as it
+ * finishes, at a position of its own, so workers need not coordinate and
+ * an interrupted tournament keeps the games it finished.
+ * <p>
+ * The results file holds the number of bots and of games, the names of the
+ * bots, then for each bot in turn and each of its games the lines cleared,
+ * score and pieces placed, as <tt>int</tt>s.  A game not yet played has
+ * placed no pieces.
+ * <p>
+ * Each bot's mean is given with a 95% confidence interval.  As the bots
+ * play the same games, whether a bot is ahead of the next is judged by
+ * the difference between them game by game, which varies much less than
+ * the lines cleared from one game to another.
+ */
+public class Tournament {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Tournament.class);
+
+    private static final int RECORD = 3 * Integer.BYTES;
+
+    /*
+     * Normal quantile of a two sided 95% confidence interval
+     */
+    private static final double Z_95 = 1.96;
+
+    private final List<String> names;
+    private final List<Supplier<Bot>> bots;
+    private final int games;
+    private final int maxPieces;
+    private final long seed;
+    private final ThreadLocal<Player> players;
+
+    /**
+     * @param bots creates a bot for each worker, by the name of the bot
+     * @param games the number of games each bot plays
+     * @param maxPieces the number of pieces after which a game is stopped
+     * @param seed from which the seed of each game is derived
+     */
+    Tournament(Map<String, Supplier<Bot>> bots, int width, int height, int games, int maxPieces, long seed) {
+        if (bots.isEmpty()) {
+            throw new IllegalArgumentException("Tournament needs at least one bot");
+        }
+        if (games < 1) {
+            throw new IllegalArgumentException("Each bot must play at least 1 game: " + games);
+        }
+        if (maxPieces < 1) {
+            throw new IllegalArgumentException("Games must last at least 1 piece: " + maxPieces);
+        }
+        this.names = new ArrayList<>(bots.keySet());
+        this.bots = new ArrayList<>(bots.values());
+        this.games = games;
+        this.maxPieces = maxPieces;
+        this.seed = seed;
+        this.players = ThreadLocal.withInitial(() -> new Player(width, height, this.bots.size()));
+    }
+
+    /**
+     * Plays every game of every bot, writing the results to a file
+     * @return the bots in order of the mean lines they cleared
+     */
+    public List<Standing> run(Path results) throws IOException {
+        long start = System.nanoTime();
+        byte[] header = header();
+        try (FileChannel channel = FileChannel.open(results, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+            write(channel, ByteBuffer.wrap(header), 0);
+            // sized for every game up front, so those not played read as such
+            long size = header.length + ((long) names.size() * games * RECORD);
+            write(channel, ByteBuffer.allocate(1), size - 1);
+            new Matches(channel, header.length, 0, names.size() * games).invoke();
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        long elapsed = System.nanoTime() - start;
+        LOGGER.info("Played {} games in {} seconds", names.size() * games, TimeUnit.NANOSECONDS.toSeconds(elapsed));
+        return rank(results);
+    }
+
+    /**
+     * Ranks the bots by the games of a results file, skipping those not
+     * played, including any beyond the end of a file cut short
+     * @return the bots in order of the mean lines they cleared
+     */
+    public static List<Standing> rank(Path results) throws IOException {
+        List<String> names = new ArrayList<>();
+        int[][] lines;
+        boolean[][] played;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(results)))) {
+            int bots = in.readInt();
+            int games = in.readInt();
+            for (int bot = 0; bot < bots; bot++) {
+                names.add(in.readUTF());
+            }
+            lines = new int[bots][games];
+            played = new boolean[bots][games];
+            try {
+                for (int bot = 0; bot < bots; bot++) {
+                    for (int game = 0; game < games; game++) {
+                        int linesCleared = in.readInt();
+                        in.readInt();
+                        played[bot][game] = (in.readInt() > 0);
+                        lines[bot][game] = linesCleared;
+                    }
+                }
+            }
+            catch (EOFException e) {
+                // the remaining games were not played
+            }
+        }
+        Integer[] ranking = new Integer[names.size()];
+        double[] means = new double[names.size()];
+        for (int bot = 0; bot < ranking.length; bot++) {
+            ranking[bot] = bot;
+            means[bot] = new Interval(lines[bot], played[bot]).mean;
+        }
+        Arrays.sort(ranking, (a, b) -> Double.compare(means[b], means[a]));
+        List<Standing> standings = new ArrayList<>();
+        for (int i = 0; i < ranking.length; i++) {
+            int bot = ranking[i];
+            Interval interval = new Interval(lines[bot], played[bot]);
+            boolean isAheadOfNext = false;
+            if ((i + 1) < ranking.length) {
+                int next = ranking[i + 1];
+                int[] differences = new int[lines[bot].length];
+                boolean[] bothPlayed = new boolean[differences.length];
+                for (int game = 0; game < differences.length; game++) {
+                    differences[game] = lines[bot][game] - lines[next][game];
+                    bothPlayed[game] = played[bot][game] && played[next][game];
+                }
+                Interval difference = new Interval(differences, bothPlayed);
+                isAheadOfNext = (difference.mean - difference.halfWidth) > 0;
+            }
+            standings.add(new Standing(names.get(bot), interval.games, interval.mean, interval.halfWidth, isAheadOfNext));
+        }
+        return standings;
+    }
+
+    /**
+     * e.g. <tt>--games=10000 --pieces=1000 --results=results.bin
+     * default=0.76,-0.51,-0.36,-0.18,0,0,0 tuned=...</tt>, each bot a
+     * {@link GreedyBot} with the weights of its features
+     */
+    public static void main(String[] args) throws IOException {
+        int games = 1000;
+        int maxPieces = 1000;
+        long seed = 1;
+        Path results = Paths.get("results.bin");
+        int width = GameModel.DEFAULT_WIDTH;
+        Map<String, Supplier<Bot>> bots = new LinkedHashMap<>();
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--games=")) {
+                games = Integer.parseInt(value);
+            }
+            else if (arg.startsWith("--pieces=")) {
+                maxPieces = Integer.parseInt(value);
+            }
+            else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            }
+            else if (arg.startsWith("--results=")) {
+                results = Paths.get(value);
+            }
+            else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            else if (arg.indexOf('=') < 1) {
+                throw new IllegalArgumentException("Bots must be given as name=weights: " + arg);
+            }
+            else {
+                String[] values = value.split(",");
+                if (values.length != Feature.values().length) {
+                    throw new IllegalArgumentException("Bots must have " + Feature.values().length + " weights: " + arg);
+                }
+                double[] weights = new double[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    weights[i] = Double.parseDouble(values[i]);
+                }
+                bots.put(arg.substring(0, arg.indexOf('=')), () -> new GreedyBot(weights, width));
+            }
+        }
+        if (bots.isEmpty()) {
+            bots.put("default", () -> new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, width));
+        }
+        Tournament tournament = new Tournament(bots, width, GameModel.DEFAULT_HEIGHT, games, maxPieces, seed);
+        for (Standing standing : tournament.run(results)) {
+            System.out.println(String.format("%-20s %10.2f +/- %.2f lines%s", standing.name(), standing.mean(), standing.halfWidth(),
+                                             standing.isAheadOfNext() ? ", ahead of next" : ""));
+        }
+    }
+
+    /**
+     * @return the seed of a game, the same for every bot
+     */
+    long seedOf(int game) {
+        return SeededTetrominoFactory.mix(seed + game);
+    }
+
+    private byte[] header() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(names.size());
+            out.writeInt(games);
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+    }
+
+    /**
+     * A bot's place in a tournament
+     */
+    public static final class Standing extends GameObject {
+
+        private final String name;
+        private final int games;
+        private final double mean;
+        private final double halfWidth;
+        private final boolean isAheadOfNext;
+
+        Standing(String name, int games, double mean, double halfWidth, boolean isAheadOfNext) {
+            this.name = name;
+            this.games = games;
+            this.mean = mean;
+            this.halfWidth = halfWidth;
+            this.isAheadOfNext = isAheadOfNext;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return the number of games played
+         */
+        public int games() {
+            return games;
+        }
+
+        /**
+         * @return the mean lines cleared
+         */
+        public double mean() {
+            return mean;
+        }
+
+        /**
+         * @return the distance either side of the mean of its 95%
+         *         confidence interval
+         */
+        public double halfWidth() {
+            return halfWidth;
+        }
+
+        /**
+         * @return <tt>true</tt> if the bot clears more lines than the next
+         *         ranked with 95% confidence
+         */
+        public boolean isAheadOfNext() {
+            return isAheadOfNext;
+        }
+    }
+
+    /*
+     * The mean and 95% confidence interval of a value of the games played
+     */
+    private static final class Interval {
+
+        private int games;
+        private double mean;
+        private double halfWidth;
+
+        Interval(int[] values, boolean[] played) {
+            double sum = 0;
+            double sumOfSquares = 0;
+            for (int game = 0; game < values.length; game++) {
+                if (played[game]) {
+                    double value = values[game];
+                    sum += value;
+                    sumOfSquares += value * value;
+                    games++;
+                }
+            }
+            mean = (games == 0) ? 0 : (sum / games);
+            if (games < 2) {
+                halfWidth = Double.POSITIVE_INFINITY;
+            }
+            else {
+                double variance = Math.max(0, (sumOfSquares - (games * mean * mean)) / (games - 1));
+                halfWidth = Z_95 * Math.sqrt(variance / games);
+            }
+        }
+    }
+
+    /**
+     * Plays the games from one index to another, of all the games of all
+     * bots, splitting until each task is a single game
+     */
+    private final class Matches extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final int offset;
+        private final int from;
+        private final int to;
+
+        Matches(FileChannel channel, int offset, int from, int to) {
+            this.channel = channel;
+            this.offset = offset;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ((to - from) == 1) {
+                ByteBuffer record = players.get().play(from / games, seedOf(from % games));
+                try {
+                    write(channel, record, offset + ((long) from * RECORD));
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Matches(channel, offset, from, middle), new Matches(channel, offset, middle, to));
+            }
+        }
+    }
+
+    /**
+     * The game and bots of a worker thread
+     */
+    private final class Player {
+
+        private final SeededTetrominoFactory factory = new SeededTetrominoFactory(0);
+        private final Game game;
+        private final Bot[] playing;
+        private final ByteBuffer record = ByteBuffer.allocate(RECORD);
+
+        Player(int width, int height, int bots) {
+            this.game = new Game(factory, width, height, GameEvents.NONE);
+            this.playing = new Bot[bots];
+        }
+
+        /**
+         * @return the record of the game
+         */
+        ByteBuffer play(int bot, long seed) {
+            if (playing[bot] == null) {
+                playing[bot] = bots.get(bot).get();
+            }
+            factory.reseed(seed);
+            game.restart();
+            while ((game.pieces() < maxPieces) && playing[bot].move(game)) {
+                // playing
+            }
+            record.clear();
+            record.putInt(game.lines()).putInt(game.score()).putInt(game.pieces());
+            record.flip();
+            return record;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package jetris.model;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Many {@link GameEnvironment}s stepped together, for reinforcement
+ * learning over thousands of games at once.
+ * <p>
+ * The environments are held as structures of arrays: the actions, rewards
+ * and done flags of all environments in an array each, indexed by
+ * environment, and their observations one after another in a single
+ * array.  Games are held in a {@link GameArena}, so stepping allocates
+ * nothing.  An environment that is done is reset as part of the same
+ * step, its observation being the first of the next episode, each
+ * episode seeded differently.
+ * <p>
+ * The environments are divided into shards that are stepped
+ * independently, either all together on the common fork join pool with
+ * {@link #step(int[])} or by the caller's own threads, a shard per
+ * thread, with {@link #step(int[], int)}.
+ */
+public class VectorGameEnvironment {
+
+    static final int SHARD_SIZE = 256;
+
+    private static final Action[] ACTIONS = Action.values();
+
+    private final int size;
+    private final int maxSteps;
+    private final long seed;
+    private final int observationSize;
+    private final ArenaGame[] shards;
+    private final int[] rewards;
+    private final boolean[] dones;
+    private final byte[] observations;
+    private final int[] steps;
+    private final int[] episodes;
+
+    /**
+     * @param size the number of environments
+     * @param maxSteps the number of steps after which an episode is done
+     * @param seed from which the seed of each episode is derived
+     */
+    public VectorGameEnvironment(int size, int width, int height, int maxSteps, long seed) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Must be at least 1 environment: " + size);
+        }
+        GameArena arena = new GameArena(size, width, height);
+        this.size = size;
+        this.maxSteps = maxSteps;
+        this.seed = seed;
+        this.observationSize = width * height;
+        this.shards = new ArenaGame[(size + SHARD_SIZE - 1) / SHARD_SIZE];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = arena.game();
+        }
+        this.rewards = new int[size];
+        this.dones = new boolean[size];
+        this.observations = new byte[size * observationSize];
+        this.steps = new int[size];
+        this.episodes = new int[size];
+        for (int environment = 0; environment < size; environment++) {
+            reset(shards[0], environment);
+        }
+    }
+
+    /**
+     * Steps every environment
+     * @param actions the ordinal of the {@link Action} of each environment
+     */
+    public void step(int[] actions) {
+        if (shards.length == 1) {
+            step(actions, 0);
+        }
+        else {
+            new Shards(actions, 0, shards.length).invoke();
+        }
+    }
+
+    /**
+     * Steps the environments of one shard, which may be done concurrently
+     * with other shards
+     * @param actions the ordinal of the {@link Action} of each environment
+     */
+    public void step(int[] actions, int shard) {
+        ArenaGame game = shards[shard];
+        int to = Math.min(size, (shard + 1) * SHARD_SIZE);
+        for (int environment = shard * SHARD_SIZE; environment < to; environment++) {
+            game.at(environment);
+            int score = game.score();
+            Action action = ACTIONS[actions[environment]];
+            switch (action) {
+              case LEFT: game.moveLeft(); break;
+              case RIGHT: game.moveRight(); break;
+              case ROTATE_LEFT: game.rotateLeft(); break;
+              case ROTATE_RIGHT: game.rotateRight(); break;
+              case DOWN: game.moveDown(); break;
+              default:
+                  assert action == Action.DROP;
+                  game.drop();
+            }
+            rewards[environment] = game.score() - score;
+            dones[environment] = game.isEnded() || (++steps[environment] >= maxSteps);
+            if (dones[environment]) {
+                reset(game, environment);
+            }
+            else {
+                game.observe(observations, environment * observationSize);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int shards() {
+        return shards.length;
+    }
+
+    /**
+     * @return the number of cells of the observation of each environment
+     */
+    public int observationSize() {
+        return observationSize;
+    }
+
+    /**
+     * @return the points scored by the last step of each environment
+     */
+    public int[] rewards() {
+        return rewards;
+    }
+
+    /**
+     * @return whether the episode of each environment was done by the last
+     *         step, and the environment reset
+     */
+    public boolean[] dones() {
+        return dones;
+    }
+
+    /**
+     * @return the cells of the board of each environment in turn, as
+     *         {@link GameEnvironment} observes them
+     */
+    public byte[] observations() {
+        return observations;
+    }
+
+    /**
+     * Encodes the games of every environment one after another, e.g. as
+     * the input of a model choosing the next actions.  Not to be called
+     * while the environments are being stepped.
+     */
+    public void encode(ObservationEncoder encoder, FloatBuffer into, int offset) {
+        encoder.encode(shards[0], 0, size, into, offset);
+    }
+
+    /**
+     * @return the seed of an episode of an environment
+     */
+    static long seedOf(long seed, int environment, int episode) {
+        return SeededTetrominoFactory.mix(SeededTetrominoFactory.mix(seed + environment) + episode);
+    }
+
+    private void reset(ArenaGame game, int environment) {
+        game.at(environment).reset(seedOf(seed, environment, episodes[environment]++));
+        steps[environment] = 0;
+        game.observe(observations, environment * observationSize);
+    }
+
+    /**
+     * Steps a range of shards, splitting until each task is a single shard
+     */
+    private final class Shards extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] actions;
+        private final int from;
+        private final int to;
+
+        Shards(int[] actions, int from, int to) {
+            this.actions = actions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ((to - from) == 1) {
+                step(actions, from);
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Shards(actions, from, middle), new Shards(actions, middle, to));
+            }
+        }
+    }
+}
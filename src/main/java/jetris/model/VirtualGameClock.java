@@ -0,0 +1,194 @@
+package jetris.model;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game clock driven by virtual rather than wall-clock time, so games
+ * can be replayed or simulated faster than real time.  Gravity ticks
+ * fire at exactly the same virtual times as they would in a real game.
+ * <p>
+ * The clock is advanced by the thread calling {@link #run()} or
+ * {@link #advanceBy(long)}; all ticks and scheduled actions execute on
+ * that thread.  The speed factor maps virtual time onto real time, e.g.
+ * at a speed of 10 one virtual second passes in 100ms, whilst an
+ * {@link #UNBOUNDED unbounded} clock never waits.
+ */
+public class VirtualGameClock implements GameClock {
+
+    public static final double UNBOUNDED = Double.POSITIVE_INFINITY;
+
+    private final PriorityQueue<ScheduledAction> actions = new PriorityQueue<>();
+    private final double speed;
+    private GameModel model;
+    private Runnable task;
+    private boolean isTicking;
+    private boolean isPaused;
+    private long currentTime;
+    private long nextTickTime;
+    private long remainingDelay;
+    private long sequence;
+    private long realAnchor;
+    private long virtualAnchor;
+
+    /**
+     * Creates a clock that runs as fast as possible
+     */
+    public VirtualGameClock() {
+        this(UNBOUNDED);
+    }
+
+    public VirtualGameClock(double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Speed must be positive: " + speed);
+        }
+        this.speed = speed;
+    }
+
+    @Override
+    public void start(GameModel context, Runnable tickTask) {
+        this.model = context;
+        this.task = tickTask;
+        this.isTicking = true;
+        this.isPaused = false;
+        this.nextTickTime = currentTime;
+    }
+
+    @Override
+    public void stop() {
+        isTicking = false;
+        isPaused = false;
+    }
+
+    @Override
+    public void pause() {
+        if (isTicking) {
+            isTicking = false;
+            isPaused = true;
+            remainingDelay = nextTickTime - currentTime;
+        }
+    }
+
+    @Override
+    public void resume() {
+        if (isPaused) {
+            isPaused = false;
+            isTicking = true;
+            nextTickTime = currentTime + remainingDelay;
+        }
+    }
+
+    /**
+     * @return the current virtual time in milliseconds
+     */
+    public long currentTime() {
+        return currentTime;
+    }
+
+    /**
+     * Schedules the action to execute at the given virtual time, e.g. a
+     * recorded key press.  Actions scheduled for the same time as a
+     * gravity tick execute before the tick.
+     */
+    public void schedule(long time, Runnable action) {
+        if (time < currentTime) {
+            throw new IllegalArgumentException("Cannot schedule in the past: " + time);
+        }
+        actions.add(new ScheduledAction(time, sequence++, action));
+    }
+
+    /**
+     * Advances virtual time by the given number of milliseconds, executing
+     * all ticks and actions that fall due.
+     */
+    public void advanceBy(long duration) {
+        long targetTime = currentTime + duration;
+        anchor();
+        while (hasEventDueBy(targetTime)) {
+            executeNextEvent();
+        }
+        advanceTo(targetTime);
+    }
+
+    /**
+     * Advances virtual time until the clock has been stopped or paused and
+     * no scheduled actions remain, e.g. until the game has ended.
+     */
+    public void run() {
+        anchor();
+        while (isTicking || !actions.isEmpty()) {
+            executeNextEvent();
+        }
+    }
+
+    private boolean hasEventDueBy(long time) {
+        return (isTicking && (nextTickTime <= time))
+            || (!actions.isEmpty() && (actions.peek().time <= time));
+    }
+
+    private void executeNextEvent() {
+        if (!actions.isEmpty() && (!isTicking || (actions.peek().time <= nextTickTime))) {
+            ScheduledAction action = actions.poll();
+            advanceTo(action.time);
+            action.runnable.run();
+        } else {
+            assert isTicking;
+            advanceTo(nextTickTime);
+            nextTickTime = currentTime + period();
+            task.run();
+            if (isTicking) {
+                // the tick may have raised the level
+                nextTickTime = currentTime + period();
+            }
+        }
+    }
+
+    private long period() {
+        return Gravity.period(model.level());
+    }
+
+    private void anchor() {
+        realAnchor = System.nanoTime();
+        virtualAnchor = currentTime;
+    }
+
+    private void advanceTo(long time) {
+        assert time >= currentTime;
+        currentTime = time;
+        if (speed != UNBOUNDED) {
+            waitForRealTime();
+        }
+    }
+
+    private void waitForRealTime() {
+        long realDeadline = realAnchor + (long) (TimeUnit.MILLISECONDS.toNanos(currentTime - virtualAnchor) / speed);
+        long delay;
+        while ((delay = realDeadline - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static final class ScheduledAction implements Comparable<ScheduledAction> {
+
+        private final long time;
+        private final long sequence;
+        private final Runnable runnable;
+
+        ScheduledAction(long time, long sequence, Runnable runnable) {
+            this.time = time;
+            this.sequence = sequence;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public int compareTo(ScheduledAction other) {
+            int order = Long.compare(time, other.time);
+            return (order != 0) ? order : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package jetris.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tunes the weights of the {@link Feature}s by which a {@link GreedyBot}
+ * places tetrominos, with a genetic algorithm.
+ * <p>
+ * Each generation, every candidate set of weights plays the same seeded
+ * games, its fitness being the mean number of lines it clears before the
+ * game ends or a limit of pieces is reached.  The fittest candidates are
+ * kept and the rest of the next generation bred from candidates chosen
+ * by tournament, crossed over in proportion to their fitness and
+ * occasionally mutated.
+ * <p>
+ * Games are played in parallel on the common fork join pool, each game a
+ * task so that idle workers steal games from busy ones.  Each worker
+ * reuses its own game and bot for every game it plays.  The population is
+ * checkpointed to a file after each generation, and tuning resumes from
+ * the checkpoint if it exists.
+ * <p>
+ * Each generation plays different games, some luckier than others, so
+ * the fittest weights reported are those of the latest generation rather
+ * than the fittest of any generation.
+ */
+public class WeightTuner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WeightTuner.class);
+
+    private static final String GENERATION = "generation=";
+
+    private static final String BEST = "best=";
+
+    private static final String BEST_FITNESS = "fitness=";
+
+    private static final char SEPARATOR = ',';
+
+    private static final double ELITE_FRACTION = 0.1;
+
+    private static final double TOURNAMENT_FRACTION = 0.1;
+
+    private static final double MUTATION_RATE = 0.05;
+
+    private static final double MUTATION_STEP = 0.2;
+
+    private final int games;
+    private final int maxPieces;
+    private final long seed;
+    private final Path checkpoint;
+    private final ThreadLocal<Simulation> simulations;
+    private double[][] candidates;
+    private final double[] fitness;
+    private final int[] linesCleared;
+    private final long[] gameSeeds;
+    private int generation;
+    private double[] best;
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+    private int generationsRun;
+    private long elapsedNanos;
+
+    /**
+     * @param width of the board of the games played
+     * @param height of the board of the games played
+     * @param population the number of candidate weights in each generation
+     * @param games the number of games each candidate plays
+     * @param maxPieces the number of pieces after which a game is stopped
+     * @param seed of the population and the games played
+     * @param checkpoint the file the population is saved to and resumed
+     *        from
+     */
+    public WeightTuner(int width, int height, int population, int games, int maxPieces, long seed, Path checkpoint) throws IOException {
+        if (population < 2) {
+            throw new IllegalArgumentException("Population must be at least 2: " + population);
+        }
+        if (games < 1) {
+            throw new IllegalArgumentException("Games must be at least 1: " + games);
+        }
+        this.games = games;
+        this.maxPieces = maxPieces;
+        this.seed = seed;
+        this.checkpoint = checkpoint;
+        this.simulations = ThreadLocal.withInitial(() -> new Simulation(width, height));
+        this.fitness = new double[population];
+        this.linesCleared = new int[population * games];
+        this.gameSeeds = new long[games];
+        if (Files.exists(checkpoint)) {
+            load();
+        }
+        else {
+            this.candidates = initialPopulation(population);
+        }
+    }
+
+    /**
+     * Evaluates and breeds the given number of generations
+     */
+    public void run(int generations) throws IOException {
+        for (int i = 0; i < generations; i++) {
+            long start = System.nanoTime();
+            evaluate();
+            candidates = breed();
+            generation++;
+            save();
+            elapsedNanos += System.nanoTime() - start;
+            generationsRun++;
+            LOGGER.info("Generation {}: best {} lines with {}, {} generations/hour",
+                        generation, bestFitness, Arrays.toString(best), Math.round(generationsPerHour()));
+        }
+    }
+
+    /**
+     * @return the number of generations bred, including those before the
+     *         tuning resumed
+     */
+    public int generation() {
+        return generation;
+    }
+
+    /**
+     * @return the fittest weights of the latest generation evaluated, or
+     *         <tt>null</tt> if none has been
+     */
+    public double[] best() {
+        return (best == null) ? null : best.clone();
+    }
+
+    /**
+     * @return the mean lines cleared by the fittest weights, in the games
+     *         of their generation
+     */
+    public double bestFitness() {
+        return bestFitness;
+    }
+
+    public double generationsPerHour() {
+        return (elapsedNanos == 0) ? 0 : ((generationsRun * (double) TimeUnit.HOURS.toNanos(1)) / elapsedNanos);
+    }
+
+    /**
+     * e.g. <tt>--population=100 --games=20 --pieces=1000 --generations=50
+     * --checkpoint=weights.txt</tt>
+     */
+    public static void main(String[] args) throws IOException {
+        int population = 100;
+        int games = 20;
+        int maxPieces = 1000;
+        int generations = 50;
+        long seed = 1;
+        Path checkpoint = Paths.get("weights.txt");
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--population=")) {
+                population = Integer.parseInt(value);
+            }
+            else if (arg.startsWith("--games=")) {
+                games = Integer.parseInt(value);
+            }
+            else if (arg.startsWith("--pieces=")) {
+                maxPieces = Integer.parseInt(value);
+            }
+            else if (arg.startsWith("--generations=")) {
+                generations = Integer.parseInt(value);
+            }
+            else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            }
+            else if (arg.startsWith("--checkpoint=")) {
+                checkpoint = Paths.get(value);
+            }
+        }
+        WeightTuner tuner = new WeightTuner(GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, population, games, maxPieces, seed, checkpoint);
+        tuner.run(generations);
+        System.out.println("Generation " + tuner.generation() + ": best " + tuner.bestFitness() + " lines with "
+                           + Arrays.toString(tuner.best()) + ", " + Math.round(tuner.generationsPerHour()) + " generations/hour");
+    }
+
+    /*
+     * Every candidate plays the same games, which differ each generation,
+     * so only the fitness of candidates of the same generation compare
+     */
+    private void evaluate() {
+        Random random = new Random(seed + generation);
+        for (int i = 0; i < games; i++) {
+            gameSeeds[i] = random.nextLong();
+        }
+        new Evaluation(0, linesCleared.length).invoke();
+        bestFitness = Double.NEGATIVE_INFINITY;
+        for (int candidate = 0; candidate < candidates.length; candidate++) {
+            long total = 0;
+            for (int game = 0; game < games; game++) {
+                total += linesCleared[(candidate * games) + game];
+            }
+            fitness[candidate] = (double) total / games;
+            if (fitness[candidate] > bestFitness) {
+                bestFitness = fitness[candidate];
+                best = candidates[candidate].clone();
+            }
+        }
+    }
+
+    private double[][] breed() {
+        Random random = new Random(~(seed + generation));
+        Integer[] ranking = new Integer[candidates.length];
+        for (int i = 0; i < ranking.length; i++) {
+            ranking[i] = i;
+        }
+        Arrays.sort(ranking, (a, b) -> Double.compare(fitness[b], fitness[a]));
+        double[][] next = new double[candidates.length][];
+        int elite = Math.max(1, (int) (candidates.length * ELITE_FRACTION));
+        for (int i = 0; i < elite; i++) {
+            next[i] = candidates[ranking[i]];
+        }
+        for (int i = elite; i < next.length; i++) {
+            next[i] = mutate(crossover(select(random), select(random)), random);
+        }
+        return next;
+    }
+
+    private int select(Random random) {
+        int selected = random.nextInt(candidates.length);
+        int entrants = Math.max(2, (int) (candidates.length * TOURNAMENT_FRACTION));
+        for (int i = 1; i < entrants; i++) {
+            int entrant = random.nextInt(candidates.length);
+            if (fitness[entrant] > fitness[selected]) {
+                selected = entrant;
+            }
+        }
+        return selected;
+    }
+
+    /*
+     * The child lies between its parents, nearer the fitter
+     */
+    private double[] crossover(int a, int b) {
+        double total = fitness[a] + fitness[b];
+        double share = (total > 0) ? (fitness[a] / total) : 0.5;
+        double[] child = new double[candidates[a].length];
+        for (int i = 0; i < child.length; i++) {
+            child[i] = (share * candidates[a][i]) + ((1 - share) * candidates[b][i]);
+        }
+        return child;
+    }
+
+    private static double[] mutate(double[] weights, Random random) {
+        for (int i = 0; i < weights.length; i++) {
+            if (random.nextDouble() < MUTATION_RATE) {
+                weights[i] += (random.nextDouble() * 2 - 1) * MUTATION_STEP;
+            }
+        }
+        return normalise(weights);
+    }
+
+    /*
+     * Only the direction of the weights matters to a greedy bot, so
+     * keeping them of unit length keeps them comparable
+     */
+    private static double[] normalise(double[] weights) {
+        double length = 0;
+        for (double weight : weights) {
+            length += weight * weight;
+        }
+        length = Math.sqrt(length);
+        if (length > 0) {
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] /= length;
+            }
+        }
+        return weights;
+    }
+
+    private double[][] initialPopulation(int population) {
+        Random random = new Random(seed);
+        double[][] initial = new double[population][];
+        initial[0] = normalise(GreedyBot.DEFAULT_WEIGHTS.clone());
+        for (int i = 1; i < population; i++) {
+            initial[i] = new double[Feature.values().length];
+            for (int j = 0; j < initial[i].length; j++) {
+                initial[i][j] = random.nextDouble() * 2 - 1;
+            }
+            normalise(initial[i]);
+        }
+        return initial;
+    }
+
+    /*
+     * The generation, the fittest weights and their fitness, then a line
+     * of comma separated weights for each candidate.  Written to a sibling
+     * file first and moved into place, so an interrupted save leaves the
+     * last checkpoint intact.
+     */
+    private void save() throws IOException {
+        Path saving = checkpoint.resolveSibling(checkpoint.getFileName() + ".saving");
+        try (Writer writer = Files.newBufferedWriter(saving, StandardCharsets.UTF_8)) {
+            writer.write(GENERATION + generation + System.lineSeparator());
+            writer.write(BEST);
+            write(writer, best);
+            writer.write(BEST_FITNESS + bestFitness + System.lineSeparator());
+            for (double[] candidate : candidates) {
+                write(writer, candidate);
+            }
+        }
+        Files.move(saving, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void write(Writer writer, double[] weights) throws IOException {
+        for (int i = 0; i < weights.length; i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            writer.write(Double.toString(weights[i]));
+        }
+        writer.write(System.lineSeparator());
+    }
+
+    private void load() throws IOException {
+        List<double[]> loaded = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if ((line == null) || !line.startsWith(GENERATION)) {
+                throw new IOException("Not a checkpoint: " + checkpoint);
+            }
+            generation = Integer.parseInt(line.substring(GENERATION.length()));
+            line = reader.readLine();
+            if ((line == null) || !line.startsWith(BEST)) {
+                throw new IOException("Checkpoint has no best weights: " + checkpoint);
+            }
+            best = parse(line.substring(BEST.length()));
+            line = reader.readLine();
+            if ((line == null) || !line.startsWith(BEST_FITNESS)) {
+                throw new IOException("Checkpoint has no best fitness: " + checkpoint);
+            }
+            bestFitness = Double.parseDouble(line.substring(BEST_FITNESS.length()));
+            while ((line = reader.readLine()) != null) {
+                loaded.add(parse(line));
+            }
+        }
+        if (loaded.size() != fitness.length) {
+            throw new IOException("Checkpoint holds " + loaded.size() + " candidates, not " + fitness.length);
+        }
+        candidates = loaded.toArray(new double[loaded.size()][]);
+    }
+
+    private static double[] parse(String line) {
+        String[] values = line.split(String.valueOf(SEPARATOR));
+        double[] weights = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            weights[i] = Double.parseDouble(values[i]);
+        }
+        return weights;
+    }
+
+    /**
+     * Plays the games from one index to another, of all the games of all
+     * candidates, splitting until each task is a single game
+     */
+    private final class Evaluation extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Evaluation(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ((to - from) == 1) {
+                linesCleared[from] = simulations.get().play(candidates[from / games], gameSeeds[from % games], maxPieces);
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Evaluation(from, middle), new Evaluation(middle, to));
+            }
+        }
+    }
+
+    /**
+     * The game and bot of a worker thread
+     */
+    private static final class Simulation {
+
+        private final SeededTetrominoFactory factory = new SeededTetrominoFactory(0);
+        private final Game game;
+        private final GreedyBot bot;
+
+        Simulation(int width, int height) {
+            this.game = new Game(factory, width, height, GameEvents.NONE);
+            this.bot = new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, width);
+        }
+
+        /**
+         * @return the lines cleared
+         */
+        int play(double[] weights, long seed, int maxPieces) {
+            factory.reseed(seed);
+            game.restart();
+            bot.weigh(weights);
+            while ((game.pieces() < maxPieces) && bot.move(game)) {
+                // playing
+            }
+            return game.lines();
+        }
+    }
+}
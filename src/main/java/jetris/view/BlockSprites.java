@@ -0,0 +1,86 @@
+package jetris.view;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.EnumMap;
+import java.util.Map;
+
+import jetris.model.Block;
+
+/**
+ * Pre-rendered, bevelled images of blocks of each colour, so drawing a
+ * block is a single image copy.  Sprites are rendered at the resolution
+ * of the device (e.g. twice the size on a HiDPI display) and re-rendered
+ * only when that resolution changes.
+ */
+class BlockSprites {
+
+    private static final int BEVEL = 3;
+
+    private final int blockSize;
+    private final Map<Block.Color, Color> colors;
+    private final Map<Block.Color, BufferedImage> sprites = new EnumMap<>(Block.Color.class);
+    private double scale;
+
+    BlockSprites(int blockSize, Map<Block.Color, Color> colors) {
+        this.blockSize = blockSize;
+        this.colors = colors;
+    }
+
+    /**
+     * Draws a block with its top left corner at the given position.  As
+     * with {@link Graphics#drawRect} the block's outline extends one pixel
+     * beyond the block size.
+     */
+    void draw(Block.Color color, Graphics graphics, int x, int y) {
+        int size = blockSize + 1;
+        graphics.drawImage(spriteOf(color, (Graphics2D) graphics), x, y, size, size, null);
+    }
+
+    private BufferedImage spriteOf(Block.Color color, Graphics2D graphics) {
+        double deviceScale = graphics.getTransform().getScaleX();
+        if (deviceScale != scale) {
+            sprites.clear();
+            scale = deviceScale;
+        }
+        BufferedImage sprite = sprites.get(color);
+        if (sprite == null) {
+            sprite = createSprite(colors.get(color), graphics.getDeviceConfiguration());
+            sprites.put(color, sprite);
+        }
+        return sprite;
+    }
+
+    private BufferedImage createSprite(Color color, GraphicsConfiguration configuration) {
+        int size = (int) Math.ceil((blockSize + 1) * scale);
+        BufferedImage image = (configuration != null)
+                ? configuration.createCompatibleImage(size, size, Transparency.OPAQUE)
+                : new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.scale(scale, scale);
+            paintBlock(color, graphics);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private void paintBlock(Color color, Graphics graphics) {
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, blockSize, blockSize);
+        // lit from top left, shaded bottom right
+        graphics.setColor(color.brighter());
+        graphics.fillRect(1, 1, blockSize - 1, BEVEL);
+        graphics.fillRect(1, 1, BEVEL, blockSize - 1);
+        graphics.setColor(color.darker());
+        graphics.fillRect(1, blockSize - BEVEL, blockSize - 1, BEVEL);
+        graphics.fillRect(blockSize - BEVEL, 1, BEVEL, blockSize - 1);
+        graphics.setColor(Color.BLACK);
+        graphics.drawRect(0, 0, blockSize, blockSize);
+    }
+}
@@ -0,0 +1,50 @@
+package jetris.view;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.util.concurrent.TimeUnit;
+
+import jetris.metrics.FrameMetrics;
+import jetris.metrics.LatencyHistogram;
+
+/**
+ * Paints the frame metrics over the top left of the game
+ */
+class FrameMetricsOverlay {
+
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+
+    private static final Color BACKGROUND = new Color(0, 0, 0, 192);
+
+    private static final int LINE_HEIGHT = 13;
+
+    static void paint(FrameMetrics metrics, Graphics graphics) {
+        graphics.setColor(BACKGROUND);
+        graphics.fillRect(2, 2, 330, (5 * LINE_HEIGHT) + 6);
+        graphics.setFont(FONT);
+        graphics.setColor(Color.YELLOW);
+        int y = 2 + LINE_HEIGHT;
+        graphics.drawString(String.format("fps %5.1f  frames %d  coalesced %d",
+                                          metrics.framesPerSecond(),
+                                          metrics.frames(),
+                                          metrics.coalescedChanges()), 6, y);
+        y += LINE_HEIGHT;
+        graphics.drawString(summaryOf("paint      ", metrics.paintTime()), 6, y);
+        y += LINE_HEIGHT;
+        graphics.drawString(summaryOf("edt queue  ", metrics.eventQueueDelay()), 6, y);
+        y += LINE_HEIGHT;
+        graphics.drawString(summaryOf("change>paint", metrics.changeToPaintLatency()), 6, y);
+        y += LINE_HEIGHT;
+        graphics.drawString("F3 to hide", 6, y);
+    }
+
+    private static String summaryOf(String label, LatencyHistogram histogram) {
+        TimeUnit unit = TimeUnit.MILLISECONDS;
+        return String.format("%s p50 %6.2f p99 %6.2f max %6.2f ms",
+                             label,
+                             histogram.percentile(50, unit),
+                             histogram.percentile(99, unit),
+                             histogram.max(unit));
+    }
+}
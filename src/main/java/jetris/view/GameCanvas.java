@@ -0,0 +1,211 @@
+package jetris.view;
+
+import java.awt.AWTException;
+import java.awt.BufferCapabilities;
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.ImageCapabilities;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jetris.metrics.FrameMetrics;
+import jetris.metrics.InputLatencyTracer;
+import jetris.metrics.LatencyHistogram;
+import jetris.metrics.RepaintEvent;
+import jetris.model.GameModel;
+import jetris.view.GameView.Rendering;
+
+/**
+ * Actively rendered game surface.  Rather than waiting for Swing to
+ * schedule a repaint, a dedicated thread renders the game into a page
+ * flipping buffer strategy, paced to the refresh rate of the display.
+ * <p>
+ * The latency from a key press to the first frame shown after the model
+ * changed is recorded.  As a key press need not change the model, this is
+ * an upper bound when keys are pressed that have no effect.
+ */
+class GameCanvas extends Canvas implements GameSurface {
+
+    private static final long serialVersionUID = -2541457512946478187L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GameCanvas.class);
+
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    private final GameRenderer renderer = new GameRenderer();
+    private final LatencyHistogram inputLatency;
+    private final FrameMetrics frameMetrics;
+    private final InputLatencyTracer inputTracer;
+    private final AtomicLong displayableInputTime = new AtomicLong();
+    private final int buffers;
+    private volatile GameModel model;
+    private volatile boolean isDirty = true;
+    private volatile boolean isRunning;
+    private volatile boolean isOverlayVisible;
+    private long pendingInputTime;
+
+    /**
+     * @param buffers 2 for double buffering, 3 for triple buffering
+     */
+    GameCanvas(int buffers, LatencyHistogram inputLatency, FrameMetrics frameMetrics, InputLatencyTracer inputTracer) {
+        this.buffers = buffers;
+        this.inputLatency = inputLatency;
+        this.frameMetrics = frameMetrics;
+        this.inputTracer = inputTracer;
+        setPreferredSize(GameRenderer.SIZE);
+        setIgnoreRepaint(true);
+        // key presses are handled by the frame
+        setFocusable(false);
+    }
+
+    @Override
+    public Component component() {
+        return this;
+    }
+
+    @Override
+    public void start() {
+        createBufferStrategy();
+        isRunning = true;
+        Thread thread = new Thread(() -> renderLoop(), "game-renderer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        isRunning = false;
+    }
+
+    @Override
+    public void modelChanged(GameModel model) {
+        this.model = model;
+        if (pendingInputTime != 0) {
+            displayableInputTime.compareAndSet(0, pendingInputTime);
+            pendingInputTime = 0;
+        }
+        isDirty = true;
+    }
+
+    @Override
+    public void inputReceived(long time) {
+        if (pendingInputTime == 0) {
+            pendingInputTime = time;
+        }
+    }
+
+    @Override
+    public void setOverlayVisible(boolean isVisible) {
+        isOverlayVisible = isVisible;
+        isDirty = true;
+    }
+
+    @Override
+    public void paint(Graphics graphics) {
+        // exposed by the window system, so redraw on next frame
+        isDirty = true;
+    }
+
+    @Override
+    public void update(Graphics graphics) {
+        isDirty = true;
+    }
+
+    private void createBufferStrategy() {
+        BufferCapabilities flipping = new BufferCapabilities(new ImageCapabilities(true),
+                                                             new ImageCapabilities(true),
+                                                             BufferCapabilities.FlipContents.UNDEFINED);
+        try {
+            createBufferStrategy(buffers, flipping);
+        } catch (AWTException e) {
+            // page flipping not supported, so use the best available
+            createBufferStrategy(buffers);
+        }
+    }
+
+    private void renderLoop() {
+        long framePeriod = TimeUnit.SECONDS.toNanos(1) / refreshRate();
+        long nextFrame = System.nanoTime();
+        while (isRunning) {
+            if (isDirty || isOverlayVisible) {
+                isDirty = false;
+                long inputTime = displayableInputTime.getAndSet(0);
+                try {
+                    renderFrame();
+                    if (inputTime != 0) {
+                        inputLatency.record(System.nanoTime() - inputTime);
+                    }
+                } catch (RuntimeException e) {
+                    // a failed frame must not end the render thread, which
+                    // would freeze the display
+                    LOGGER.warn("Rendering frame threw an exception", e);
+                }
+            }
+            nextFrame = Math.max(nextFrame + framePeriod, System.nanoTime());
+            sleepUntil(nextFrame);
+        }
+    }
+
+    private void renderFrame() {
+        RepaintEvent event = new RepaintEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        BufferStrategy strategy = getBufferStrategy();
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        do {
+            do {
+                Graphics graphics = strategy.getDrawGraphics();
+                try {
+                    graphics.setColor(Color.BLACK);
+                    graphics.fillRect(0, 0, getWidth(), getHeight());
+                    renderer.render(model, graphics, configuration);
+                    if (isOverlayVisible) {
+                        FrameMetricsOverlay.paint(frameMetrics, graphics);
+                    }
+                    graphics.setColor(Color.DARK_GRAY);
+                    graphics.drawRect(0, 0, getWidth() - 1, getHeight() - 1);
+                } finally {
+                    graphics.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+        frameMetrics.framePainted(startTime);
+        inputTracer.framePainted();
+        if (event.shouldCommit()) {
+            event.rendering = Rendering.ACTIVE.name();
+            event.commit();
+        }
+    }
+
+    private int refreshRate() {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        if (configuration != null) {
+            DisplayMode mode = configuration.getDevice().getDisplayMode();
+            if ((mode != null) && (mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN)) {
+                return mode.getRefreshRate();
+            }
+        }
+        return DEFAULT_REFRESH_RATE;
+    }
+
+    private void sleepUntil(long time) {
+        long delay = time - System.nanoTime();
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                isRunning = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package jetris.view;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.EnumMap;
+import java.util.Map;
+
+import jetris.model.Block;
+import jetris.model.GameModel;
+import jetris.model.GameModel.GameState;
+
+/**
+ * Renders the game onto a graphics context, independently of the
+ * component (and rendering strategy) the game is displayed in.
+ */
+class GameRenderer {
+
+    static final Dimension SIZE = new Dimension(550, 600);
+
+    private static int BLOCK_SIZE = 25;
+
+    /*
+     * Area the board is drawn within, which a standard 10x17 board fills
+     * with blocks of BLOCK_SIZE.  Larger boards are drawn with smaller
+     * blocks.
+     */
+    private static final int BOARD_X = 46;
+    private static final int BOARD_Y = 60;
+    private static final int BOARD_WIDTH = GameModel.DEFAULT_WIDTH * BLOCK_SIZE;
+    private static final int BOARD_DEPTH = GameModel.DEFAULT_HEIGHT * BLOCK_SIZE;
+
+    private static final int NEXT_X = 330;
+    private static final int NEXT_Y = 100;
+
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD | Font.ITALIC, 50);
+    private static final Font HEADING_FONT = new Font("Arial", Font.BOLD, 30);
+    private static final Font PAUSED_FONT = new Font("Arial", Font.BOLD | Font.ITALIC, 30);
+    private static final Font SUBHEADING_FONT = new Font("Arial", Font.PLAIN, 30);
+    private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 20);
+    private static final Font TEXT_FONT = new Font("Arial", Font.PLAIN, 20);
+    private static final Font HINT_FONT = new Font("Arial", Font.BOLD | Font.ITALIC, 13);
+
+    private static final Map<Block.Color, Color> COLORS = colors();
+
+    /*
+     * Regions that change when only part of the game changes
+     */
+    static final Rectangle BOARD_REGION = new Rectangle(BOARD_X, BOARD_Y, BOARD_WIDTH + 1, BOARD_DEPTH + 1);
+    static final Rectangle STATS_REGION = new Rectangle(390, 160, 160, 90);
+    static final Rectangle NEXT_REGION = new Rectangle(NEXT_X, NEXT_Y, (4 * BLOCK_SIZE) + 1, (2 * BLOCK_SIZE) + 1);
+
+    /*
+     * Static content of each screen, rendered once on first use (and
+     * again should the size of the board change)
+     */
+    private final Map<GameState, BufferedImage> backgrounds = new EnumMap<>(GameState.class);
+
+    private final BlockSprites nextSprites = new BlockSprites(BLOCK_SIZE, COLORS);
+
+    private BlockSprites boardSprites = nextSprites;
+
+    private int boardColumns = GameModel.DEFAULT_WIDTH;
+
+    private int boardRows = GameModel.DEFAULT_HEIGHT;
+
+    private int boardBlockSize = BLOCK_SIZE;
+
+    static GameState stateOf(GameModel model) {
+        return (model == null) ? GameState.INITIAL : model.state();
+    }
+
+    /**
+     * Renders the model over a black background.
+     * @param configuration of the device rendered to, used to create
+     *        compatible images, or <tt>null</tt> if not known
+     */
+    void render(GameModel model, Graphics graphics, GraphicsConfiguration configuration) {
+        GameState state = stateOf(model);
+        if (model != null) {
+            fitBoard(model.width(), model.height());
+        }
+        graphics.drawImage(backgroundOf(state, configuration), 0, 0, null);
+        if (state == GameState.ACTIVE) {
+            paintActiveScreen(model, graphics);
+        }
+    }
+
+    private void fitBoard(int columns, int rows) {
+        if ((columns != boardColumns) || (rows != boardRows)) {
+            boardColumns = columns;
+            boardRows = rows;
+            boardBlockSize = Math.max(1, Math.min(BOARD_WIDTH / columns, BOARD_DEPTH / rows));
+            boardSprites = (boardBlockSize == BLOCK_SIZE) ? nextSprites : new BlockSprites(boardBlockSize, COLORS);
+            backgrounds.remove(GameState.ACTIVE);
+        }
+    }
+
+    private BufferedImage backgroundOf(GameState state, GraphicsConfiguration configuration) {
+        BufferedImage background = backgrounds.get(state);
+        if (background == null) {
+            background = createBackground(state, configuration);
+            backgrounds.put(state, background);
+        }
+        return background;
+    }
+
+    private BufferedImage createBackground(GameState state, GraphicsConfiguration configuration) {
+        BufferedImage image = (configuration != null)
+                ? configuration.createCompatibleImage(SIZE.width, SIZE.height, Transparency.BITMASK)
+                : new BufferedImage(SIZE.width, SIZE.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            switch (state) {
+                case INITIAL:
+                    paintInitialScreen(graphics);
+                    break;
+                case PAUSED:
+                    paintPausedScreen(graphics);
+                    break;
+                case ENDED:
+                    paintEndScreen(graphics);
+                    break;
+                default:
+                    assert state == GameState.ACTIVE;
+                    paintActiveBackground(graphics);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private static void paintInitialScreen(Graphics graphics) {
+        graphics.setFont(HEADING_FONT);
+        graphics.setColor(Color.WHITE);
+        graphics.drawString("Start Game Y/N?", 150, 150);
+    }
+
+    private static void paintPausedScreen(Graphics graphics) {
+        graphics.setFont(PAUSED_FONT);
+        graphics.setColor(Color.WHITE);
+        graphics.drawString("PAUSED", 210, 150);
+
+        graphics.setFont(SUBHEADING_FONT);
+        graphics.setColor(Color.DARK_GRAY);
+        graphics.drawString("CONTROL KEYS", 160, 200);
+
+        graphics.setFont(LABEL_FONT);
+        graphics.setColor(Color.WHITE);
+        graphics.drawString("Left Arrow", 130, 240);
+        graphics.drawString("Right Arrow", 130, 265);
+        graphics.drawString("Down Arrow", 130, 290);
+        graphics.drawString("Space", 130, 315);
+        graphics.drawString("X or Up Arrow", 130, 340);
+        graphics.drawString("Z", 130, 365);
+        graphics.drawString("P", 130, 415);
+        graphics.drawString("Q", 130, 440);
+
+        graphics.setFont(TEXT_FONT);
+        graphics.setColor(Color.WHITE);
+        graphics.drawString("- Move left", 310, 240);
+        graphics.drawString("- Move right", 310, 265);
+        graphics.drawString("- Move down", 310, 290);
+        graphics.drawString("- Drop down", 310, 315);
+        graphics.drawString("- Rotate right", 310, 340);
+        graphics.drawString("- Rotate left", 310, 365);
+        graphics.drawString("- Pause/Resume", 310, 415);
+        graphics.drawString("- Quit", 310, 440);
+    }
+
+    private static void paintEndScreen(Graphics graphics) {
+        graphics.setFont(HEADING_FONT);
+        graphics.setColor(Color.CYAN);
+        graphics.drawString("Play Again Y/N?", 150, 150);
+    }
+
+    private void paintActiveBackground(Graphics graphics) {
+        drawBoard(graphics);
+        graphics.setFont(LABEL_FONT);
+        drawText("Score", graphics, 330, 180);
+        drawText("Level", graphics, 330, 210);
+        drawText("Lines", graphics, 330, 240);
+        drawActiveText(graphics);
+    }
+
+    private void paintActiveScreen(GameModel model, Graphics graphics) {
+        drawStats(model, graphics);
+        drawNextTetromino(model, graphics);
+        drawBlocks(model, graphics);
+    }
+
+    private void drawBoard(Graphics graphics) {
+        int width = boardColumns * boardBlockSize;
+        int depth = boardRows * boardBlockSize;
+        graphics.setColor(Color.GRAY);
+        graphics.fillRect(BOARD_X - 6, BOARD_Y, 6, depth);
+        graphics.fillRect(BOARD_X - 6, depth + BOARD_Y, width + 12, 6);
+        graphics.fillRect(BOARD_X + width, BOARD_Y, 6, depth);
+    }
+
+    private static void drawStats(GameModel model, Graphics graphics) {
+        graphics.setFont(LABEL_FONT);
+        drawNumeric(model.score(), graphics, 390, 180);
+        drawNumeric(model.level(), graphics, 390, 210);
+        drawNumeric(model.lines(), graphics, 390, 240);
+    }
+
+    private static void drawActiveText(Graphics graphics) {
+        graphics.setColor(Color.WHITE);
+        graphics.setFont(TITLE_FONT);
+        graphics.drawString("Jetris", 200, 40);
+        graphics.setFont(HINT_FONT);
+        graphics.drawString("Press P to pause game", 40, 510);
+    }
+
+    private void drawNextTetromino(GameModel model, Graphics graphics) {
+        for (Block block : model.nextTetromino()) {
+            drawNextBlock(block, graphics);
+        }
+    }
+
+    private void drawNextBlock(Block block, Graphics graphics) {
+        int x = NEXT_X + (block.x() * BLOCK_SIZE);
+        int y = NEXT_Y + (block.y() * BLOCK_SIZE);
+        nextSprites.draw(block.color(), graphics, x, y);
+    }
+
+    private void drawBlocks(GameModel model, Graphics graphics) {
+        for (Block block : model.blocks()) {
+            if (block.y() >= 0) {
+                drawBoardBlock(block, graphics);
+            }
+        }
+    }
+
+    private void drawBoardBlock(Block block, Graphics graphics) {
+        int x = BOARD_X + (block.x() * boardBlockSize);
+        int y = BOARD_Y + (block.y() * boardBlockSize);
+        boardSprites.draw(block.color(), graphics, x, y);
+    }
+
+    private static Map<Block.Color, Color> colors() {
+        Map<Block.Color, Color> colors = new EnumMap<>(Block.Color.class);
+        for (Block.Color color : Block.Color.values()) {
+            switch (color) {
+                case BLUE:
+                    colors.put(color, Color.BLUE);
+                    break;
+                case CYAN:
+                    colors.put(color, Color.CYAN);
+                    break;
+                case GREEN:
+                    colors.put(color, Color.GREEN);
+                    break;
+                case MAGENTA:
+                    colors.put(color, Color.MAGENTA);
+                    break;
+                case ORANGE:
+                    colors.put(color, Color.ORANGE);
+                    break;
+                case RED:
+                    colors.put(color, Color.RED);
+                    break;
+                default:
+                    assert color == Block.Color.YELLOW;
+                    colors.put(color, Color.YELLOW);
+            }
+        }
+        return colors;
+    }
+
+    private static void drawText(String text, Graphics graphics, int x, int y) {
+        graphics.setColor(Color.DARK_GRAY);
+        graphics.drawString(text, x, y);
+    }
+
+    private static void drawNumeric(int value, Graphics graphics, int x, int y) {
+        graphics.setColor(Color.GREEN);
+        graphics.drawString(String.valueOf(value), x, y);
+    }
+}
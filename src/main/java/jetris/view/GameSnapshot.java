@@ -0,0 +1,126 @@
+package jetris.view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import jetris.model.Block;
+import jetris.model.GameModel;
+import jetris.model.GameModel.GameState;
+
+/**
+ * Renders snapshots of a game without a display (e.g. with
+ * <tt>java.awt.headless=true</tt>), for dashboards and logs of games
+ * played by simulations.  Snapshots are either an image, as the game
+ * view would show, or a compact text frame:
+ * <pre>
+ * ACTIVE score=12 level=1 lines=0
+ * |..........|  next
+ * |..........|  .TTT
+ * ...
+ * |...IIII...|
+ * +----------+
+ * </pre>
+ * The image and text returned are reused by the next snapshot so that
+ * taking snapshots creates no garbage beyond that of the model itself.
+ * A snapshot is therefore not thread safe; use one per thread.
+ */
+public class GameSnapshot {
+
+    private static final int NEXT_WIDTH = 4;
+    private static final int NEXT_HEIGHT = 2;
+    private static final char EMPTY = '.';
+
+    private static final Map<Block.Color, Character> LETTERS = letters();
+
+    private final GameRenderer renderer = new GameRenderer();
+    private char[][] board = new char[GameModel.DEFAULT_HEIGHT][GameModel.DEFAULT_WIDTH];
+    private final char[][] next = new char[NEXT_HEIGHT][NEXT_WIDTH];
+    private final StringBuilder text = new StringBuilder();
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    /**
+     * @return an image of the model, valid until the next snapshot is
+     *         taken
+     */
+    public BufferedImage image(GameModel model) {
+        if (image == null) {
+            image = new BufferedImage(GameRenderer.SIZE.width, GameRenderer.SIZE.height, BufferedImage.TYPE_INT_RGB);
+            graphics = image.createGraphics();
+        }
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        renderer.render(model, graphics, graphics.getDeviceConfiguration());
+        return image;
+    }
+
+    /**
+     * @return a text frame of the model, valid until the next snapshot is
+     *         taken
+     */
+    public CharSequence text(GameModel model) {
+        text.setLength(0);
+        GameState state = GameRenderer.stateOf(model);
+        text.append(state);
+        if (state == GameState.INITIAL) {
+            return text.append('\n');
+        }
+        text.append(" score=").append(model.score())
+            .append(" level=").append(model.level())
+            .append(" lines=").append(model.lines())
+            .append('\n');
+        if ((board.length != model.height()) || (board[0].length != model.width())) {
+            board = new char[model.height()][model.width()];
+        }
+        fill(board, model.blocks());
+        fill(next, model.nextTetromino());
+        for (int y = 0; y < board.length; y++) {
+            text.append('|').append(board[y]).append('|');
+            if (y == 0) {
+                text.append("  next");
+            }
+            else if (y <= NEXT_HEIGHT) {
+                text.append("  ").append(next[y - 1]);
+            }
+            text.append('\n');
+        }
+        text.append('+');
+        for (int x = 0; x < board[0].length; x++) {
+            text.append('-');
+        }
+        return text.append("+\n");
+    }
+
+    private static void fill(char[][] cells, List<Block> blocks) {
+        for (char[] row : cells) {
+            Arrays.fill(row, EMPTY);
+        }
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            if ((block.y() >= 0) && (block.y() < cells.length) && (block.x() >= 0) && (block.x() < cells[0].length)) {
+                cells[block.y()][block.x()] = LETTERS.get(block.color());
+            }
+        }
+    }
+
+    /*
+     * Each colour is used by a single shape, so blocks are shown by
+     * the letter of their shape
+     */
+    private static Map<Block.Color, Character> letters() {
+        Map<Block.Color, Character> letters = new EnumMap<>(Block.Color.class);
+        letters.put(Block.Color.CYAN, 'I');
+        letters.put(Block.Color.BLUE, 'J');
+        letters.put(Block.Color.ORANGE, 'L');
+        letters.put(Block.Color.YELLOW, 'O');
+        letters.put(Block.Color.GREEN, 'S');
+        letters.put(Block.Color.MAGENTA, 'T');
+        letters.put(Block.Color.RED, 'Z');
+        return letters;
+    }
+}
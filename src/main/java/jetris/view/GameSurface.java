@@ -0,0 +1,29 @@
+package jetris.view;
+
+import java.awt.Component;
+
+import jetris.model.GameModel;
+
+/**
+ * Component the game is rendered onto
+ */
+interface GameSurface {
+
+    Component component();
+
+    void modelChanged(GameModel model);
+
+    /**
+     * Informs the surface of a key press, so that the latency until
+     * its effect is displayed can be measured
+     * @param time of the key press, per {@link System#nanoTime()}
+     */
+    void inputReceived(long time);
+
+    /**
+     * Called once the component is displayable
+     */
+    void start();
+
+    void setOverlayVisible(boolean isVisible);
+}
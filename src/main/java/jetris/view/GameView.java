@@ -1,16 +1,22 @@
 package jetris.view;
 
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Dimension;
-import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import javax.swing.BorderFactory;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 
+import jetris.metrics.FrameMetrics;
+import jetris.metrics.InputLatencyTracer;
+import jetris.metrics.LatencyHistogram;
+import jetris.metrics.RepaintEvent;
 import jetris.model.Block;
 import jetris.model.GameController;
 import jetris.model.GameModel;
@@ -19,284 +25,260 @@ import jetris.model.GameModelListener;
 
 public class GameView implements GameModelListener {
 
-    private final GamePanel panel;
+    /**
+     * How the game is drawn
+     */
+    public enum Rendering {
+        /** repainted by Swing on the event dispatch thread */
+        PASSIVE,
+        /** page flipped by a dedicated render thread */
+        ACTIVE
+    }
+
+    private static final int ACTIVE_RENDERING_BUFFERS = 3;
+
+    private final GameSurface surface;
+    private final GameController controller;
+    private final Executor commandExecutor;
+    private final LatencyHistogram inputLatency = new LatencyHistogram();
+    private final FrameMetrics frameMetrics = new FrameMetrics();
+    private final InputLatencyTracer inputTracer = new InputLatencyTracer();
+    private GameModel model;
+    private boolean isOverlayVisible;
+    private long keyPressTime;
 
     public GameView(GameController controller) {
-        this.panel = new GamePanel(controller);
+        this(controller, Runnable::run);
+    }
+
+    /**
+     * Creates a view whose key presses are passed to the controller via
+     * the given executor, e.g. to be applied on a game loop thread.
+     */
+    public GameView(GameController controller, Executor commandExecutor) {
+        this(controller, commandExecutor, Rendering.PASSIVE);
+    }
+
+    public GameView(GameController controller, Executor commandExecutor, Rendering rendering) {
+        this.controller = controller;
+        this.commandExecutor = commandExecutor;
+        this.surface = (rendering == Rendering.ACTIVE)
+                ? new GameCanvas(ACTIVE_RENDERING_BUFFERS, inputLatency, frameMetrics, inputTracer)
+                : new GamePanel(frameMetrics, inputTracer);
         JFrame frame = new JFrame("Tetris");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.add(panel);
+        frame.add(surface.component());
         frame.pack();
         frame.setVisible(true);
         frame.addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent event) {
-                panel.processKeyCode(event.getKeyCode());
+                keyPressTime = System.nanoTime();
+                surface.inputReceived(keyPressTime);
+                processKeyCode(event.getKeyCode());
             }
         });
+        surface.start();
     }
 
     @Override
     public void modelChanged(GameModel context) {
-        panel.modelChanged(context);
+        frameMetrics.modelReceived();
+        inputTracer.modelReceived();
+        this.model = context;
+        surface.modelChanged(context);
     }
 
-    private static class GamePanel extends JPanel {
-
-        private static int BLOCK_SIZE = 25;
-
-        private static final long serialVersionUID = 494778980390601354L;
-        private GameModel model;
-        private final GameController controller;
-
-        public GamePanel(GameController controller) {
-            this.controller = controller;
-            setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY));
-            setBackground(Color.BLACK);
-        }
-
-        @Override
-        public Dimension getPreferredSize() {
-            return new Dimension(550, 600);
-        }
+    /**
+     * @return latency from key press to the display of its effect, only
+     *         recorded when rendering {@link Rendering#ACTIVE actively}
+     */
+    public LatencyHistogram inputLatency() {
+        return inputLatency;
+    }
 
+    /**
+     * @return timings of the frames painted by this view.  The publisher of
+     *         model changes should inform the metrics of each change before
+     *         passing it to the event dispatch thread.
+     */
+    public FrameMetrics frameMetrics() {
+        return frameMetrics;
+    }
 
-        public void modelChanged(GameModel model) {
-            this.model = model;
-            repaint();
-        }
+    /**
+     * @return the latency of each stage of handling key presses.  The model
+     *         listener should inform the tracer of each change on the
+     *         thread that made it.
+     */
+    public InputLatencyTracer inputTracer() {
+        return inputTracer;
+    }
 
-        @Override
-        public void paintComponent(Graphics graphics) {
-            super.paintComponent(graphics);
-            if (isGameInInitialState()) {
-                paintInitialScreen(graphics);
-            }
-            else if (isGamePaused()) {
-                paintPausedScreen(graphics);
-            }
-            else if (isGameEnded()) {
-                paintEndScreen(graphics);
-            }
-            else {
-                assert isGameActive();
-                paintActiveScreen(graphics);
-            }
+    private void processKeyCode(int keyCode) {
+        if (keyCode == KeyEvent.VK_F3) {
+            isOverlayVisible = !isOverlayVisible;
+            surface.setOverlayVisible(isOverlayVisible);
         }
-
-        void processKeyCode(int keyCode) {
-            if (isGameInInitialState() || isGameEnded()) {
-                if (keyCode == KeyEvent.VK_Y) {
-                    controller.startGame();
-                }
-            }
-            else if (isGamePaused()) {
-                if (keyCode == KeyEvent.VK_P) {
-                    controller.resumeGame();
-                }
-            }
-            else {
-                assert isGameActive();
-                processActiveGameKeyCode(keyCode);
+        else if (isGameInInitialState() || isGameEnded()) {
+            if (keyCode == KeyEvent.VK_Y) {
+                execute(() -> controller.startGame());
             }
         }
-
-        private void processActiveGameKeyCode(int keyCode) {
+        else if (isGamePaused()) {
             if (keyCode == KeyEvent.VK_P) {
-                controller.pauseGame();
-            }
-            else if (keyCode == KeyEvent.VK_LEFT) {
-                controller.moveLeft();
-            }
-            else if (keyCode == KeyEvent.VK_RIGHT) {
-                controller.moveRight();
-            }
-            else if (keyCode == KeyEvent.VK_DOWN) {
-                controller.moveDown();
-            }
-            else if ((keyCode == KeyEvent.VK_UP) || (keyCode == KeyEvent.VK_X)) {
-                controller.rotateRight();
-            }
-            else if (keyCode == KeyEvent.VK_Z) {
-                controller.rotateLeft();
-            }
-            else if (keyCode == KeyEvent.VK_Q) {
-                controller.endGame();
-            }
-            else if (keyCode == KeyEvent.VK_SPACE) {
-                controller.dropDown();
+                execute(() -> controller.resumeGame());
             }
         }
-
-        private boolean isGameInInitialState() {
-            return (model == null) || (model.state() == GameState.INITIAL);
+        else {
+            assert isGameActive();
+            processActiveGameKeyCode(keyCode);
         }
+    }
 
-        private boolean isGameActive() {
-            return (model != null) && (model.state() == GameState.ACTIVE);
+    private void processActiveGameKeyCode(int keyCode) {
+        if (keyCode == KeyEvent.VK_P) {
+            execute(() -> controller.pauseGame());
         }
-
-        private boolean isGamePaused() {
-            return (model != null) && (model.state() == GameState.PAUSED);
+        else if (keyCode == KeyEvent.VK_LEFT) {
+            execute(() -> controller.moveLeft());
         }
-
-        private boolean isGameEnded() {
-            return (model != null) && (model.state() == GameState.ENDED);
+        else if (keyCode == KeyEvent.VK_RIGHT) {
+            execute(() -> controller.moveRight());
         }
-
-        private static void paintInitialScreen(Graphics graphics) {
-            graphics.setFont(new Font("Arial", Font.BOLD, 30));
-            graphics.setColor(Color.WHITE);
-            graphics.drawString("Start Game Y/N?", 150, 150);
+        else if (keyCode == KeyEvent.VK_DOWN) {
+            execute(() -> controller.moveDown());
         }
-
-        private static void paintPausedScreen(Graphics graphics) {
-            graphics.setFont(new Font("Arial", Font.BOLD | Font.ITALIC, 30));
-            graphics.setColor(Color.WHITE);
-            graphics.drawString("PAUSED", 210, 150);
-
-            graphics.setFont(new Font("Arial", Font.PLAIN, 30));
-            graphics.setColor(Color.DARK_GRAY);
-            graphics.drawString("CONTROL KEYS", 160, 200);
-
-            graphics.setFont(new Font("Arial", Font.BOLD, 20));
-            graphics.setColor(Color.WHITE);
-            graphics.drawString("Left Arrow", 130, 240);
-            graphics.drawString("Right Arrow", 130, 265);
-            graphics.drawString("Down Arrow", 130, 290);
-            graphics.drawString("Space", 130, 315);
-            graphics.drawString("X or Up Arrow", 130, 340);
-            graphics.drawString("Z", 130, 365);
-            graphics.drawString("P", 130, 415);
-            graphics.drawString("Q", 130, 440);
-
-            graphics.setFont(new Font("Arial", Font.PLAIN, 20));
-            graphics.setColor(Color.WHITE);
-            graphics.drawString("- Move left", 310, 240);
-            graphics.drawString("- Move right", 310, 265);
-            graphics.drawString("- Move down", 310, 290);
-            graphics.drawString("- Drop down", 310, 315);
-            graphics.drawString("- Rotate right", 310, 340);
-            graphics.drawString("- Rotate left", 310, 365);
-            graphics.drawString("- Pause/Resume", 310, 415);
-            graphics.drawString("- Quit", 310, 440);
+        else if ((keyCode == KeyEvent.VK_UP) || (keyCode == KeyEvent.VK_X)) {
+            execute(() -> controller.rotateRight());
         }
-
-        private static void paintEndScreen(Graphics graphics) {
-            graphics.setFont(new Font("Arial", Font.BOLD, 30));
-            graphics.setColor(Color.CYAN);
-            graphics.drawString("Play Again Y/N?", 150, 150);
+        else if (keyCode == KeyEvent.VK_Z) {
+            execute(() -> controller.rotateLeft());
+        }
+        else if (keyCode == KeyEvent.VK_Q) {
+            execute(() -> controller.endGame());
         }
+        else if (keyCode == KeyEvent.VK_SPACE) {
+            execute(() -> controller.dropDown());
+        }
+    }
 
+    private void execute(Runnable command) {
+        commandExecutor.execute(inputTracer.trace(keyPressTime, command));
+    }
 
-        private void paintActiveScreen(Graphics graphics) {
-            drawBoard(graphics);
-            drawScore(graphics);
-            drawLevel(graphics);
-            drawLines(graphics);
-            drawNextTetromino(graphics);
-            drawBlocks(graphics);
-            drawActiveText(graphics);
-        }
+    private boolean isGameInInitialState() {
+        return (model == null) || (model.state() == GameState.INITIAL);
+    }
 
-        private static void drawBoard(Graphics graphics) {
-            graphics.setColor(Color.GRAY);
-            int depth = 17 * BLOCK_SIZE;
-            int width = 10 * BLOCK_SIZE;
-            graphics.fillRect(40, 60, 6, depth);
-            graphics.fillRect(40, depth + 60, width + 12, 6);
-            graphics.fillRect(width + 46, 60, 6, depth);
-        }
+    private boolean isGameActive() {
+        return (model != null) && (model.state() == GameState.ACTIVE);
+    }
 
-        private void drawScore(Graphics graphics) {
-            graphics.setFont(new Font("Arial", Font.BOLD, 20));
-            drawText("Score", graphics, 330, 180);
-            drawNumeric(model.score(), graphics, 390, 180);
-        }
+    private boolean isGamePaused() {
+        return (model != null) && (model.state() == GameState.PAUSED);
+    }
 
-        private void drawLevel(Graphics graphics) {
-            graphics.setFont(new Font("Arial", Font.BOLD, 20));
-            drawText("Level", graphics, 330, 210);
-            drawNumeric(model.level(), graphics, 390, 210);
-        }
+    private boolean isGameEnded() {
+        return (model != null) && (model.state() == GameState.ENDED);
+    }
+
+    /**
+     * Passively rendered game surface, repainting only the regions of
+     * the game that have changed.
+     */
+    static class GamePanel extends JPanel implements GameSurface {
 
-        private void drawLines(Graphics graphics) {
-            graphics.setFont(new Font("Arial", Font.BOLD, 20));
-            drawText("Lines", graphics, 330, 240);
-            drawNumeric(model.lines(), graphics, 390, 240);
+        private static final long serialVersionUID = 494778980390601354L;
+        private final GameRenderer renderer = new GameRenderer();
+        private final FrameMetrics frameMetrics;
+        private final InputLatencyTracer inputTracer;
+        private GameModel model;
+        private boolean isOverlayVisible;
+        private GameState paintedState;
+        private int paintedScore;
+        private int paintedLevel;
+        private int paintedLines;
+        private List<Block> paintedNextTetromino;
+
+        public GamePanel(FrameMetrics frameMetrics, InputLatencyTracer inputTracer) {
+            this.frameMetrics = frameMetrics;
+            this.inputTracer = inputTracer;
+            setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY));
+            setBackground(Color.BLACK);
         }
 
-        private static void drawActiveText(Graphics graphics) {
-            graphics.setColor(Color.WHITE);
-            graphics.setFont(new Font("Arial", Font.BOLD | Font.ITALIC, 50));
-            graphics.drawString("Jetris", 200, 40);
-            graphics.setFont(new Font("Arial", Font.BOLD | Font.ITALIC, 13));
-            graphics.drawString("Press P to pause game", 40, 510);
+        @Override
+        public Dimension getPreferredSize() {
+            return GameRenderer.SIZE;
         }
 
-        private void drawNextTetromino(Graphics graphics) {
-            for (Block block : model.nextTetromino()) {
-                drawNextBlock(block, graphics);
-            }
+        @Override
+        public Component component() {
+            return this;
         }
 
-        private static void drawNextBlock(Block block, Graphics graphics) {
-            graphics.setColor(colorOf(block));
-            int x = 330 + (block.x() * BLOCK_SIZE);
-            int y = 100 + (block.y() * BLOCK_SIZE);
-            graphics.fillRect(x, y, BLOCK_SIZE, BLOCK_SIZE);
-            graphics.setColor(Color.BLACK);
-            graphics.drawRect(x, y, BLOCK_SIZE, BLOCK_SIZE);
+        @Override
+        public void start() {
+            // nothing to do, Swing schedules repaints
         }
 
-        private void drawBlocks(Graphics graphics) {
-            for (Block block : model.blocks()) {
-                if (block.y() >= 0) {
-                    drawBoardBlock(block, graphics);
-                }
-            }
+        @Override
+        public void inputReceived(long time) {
+            // not measured
         }
 
-        private static void drawBoardBlock(Block block, Graphics graphics) {
-            graphics.setColor(colorOf(block));
-            int x = 46 + (block.x() * BLOCK_SIZE);
-            int y = 60 + (block.y() * BLOCK_SIZE);
-            graphics.fillRect(x, y, BLOCK_SIZE, BLOCK_SIZE);
-            graphics.setColor(Color.BLACK);
-            graphics.drawRect(x, y, BLOCK_SIZE, BLOCK_SIZE);
+        @Override
+        public void setOverlayVisible(boolean isVisible) {
+            isOverlayVisible = isVisible;
+            repaint();
         }
 
-        private static Color colorOf(Block block) {
-            switch (block.color()) {
-                case BLUE:
-                    return Color.BLUE;
-                case CYAN:
-                    return Color.CYAN;
-                case GREEN:
-                    return Color.GREEN;
-                case MAGENTA:
-                    return Color.MAGENTA;
-                case ORANGE:
-                    return Color.ORANGE;
-                case RED:
-                    return Color.RED;
-                default:
-                    assert block.color() == Block.Color.YELLOW;
-                    return Color.YELLOW;
+        @Override
+        public void modelChanged(GameModel model) {
+            this.model = model;
+            boolean isActive = (GameRenderer.stateOf(model) == GameState.ACTIVE);
+            if (isActive && (paintedState == GameState.ACTIVE) && !isOverlayVisible) {
+                repaintChangedRegions();
+            } else {
+                repaint();
+            }
+            paintedState = GameRenderer.stateOf(model);
+            if (isActive) {
+                paintedScore = model.score();
+                paintedLevel = model.level();
+                paintedLines = model.lines();
+                paintedNextTetromino = model.nextTetromino();
             }
         }
 
-        private static void drawText(String text, Graphics graphics, int x, int y) {
-            graphics.setColor(Color.DARK_GRAY);
-            graphics.drawString(text, x, y);
+        private void repaintChangedRegions() {
+            repaint(GameRenderer.BOARD_REGION);
+            if ((model.score() != paintedScore) || (model.level() != paintedLevel) || (model.lines() != paintedLines)) {
+                repaint(GameRenderer.STATS_REGION);
+            }
+            // the next tetromino's blocks are only replaced when it changes
+            if (model.nextTetromino() != paintedNextTetromino) {
+                repaint(GameRenderer.NEXT_REGION);
+            }
         }
 
-        private static void drawNumeric(int value, Graphics graphics, int x, int y) {
-            graphics.setColor(Color.GREEN);
-            graphics.drawString(String.valueOf(value), x, y);
+        @Override
+        public void paintComponent(Graphics graphics) {
+            RepaintEvent event = new RepaintEvent();
+            event.begin();
+            long startTime = System.nanoTime();
+            super.paintComponent(graphics);
+            renderer.render(model, graphics, getGraphicsConfiguration());
+            if (isOverlayVisible) {
+                FrameMetricsOverlay.paint(frameMetrics, graphics);
+            }
+            frameMetrics.framePainted(startTime);
+            inputTracer.framePainted();
+            if (event.shouldCommit()) {
+                event.rendering = Rendering.PASSIVE.name();
+                event.commit();
+            }
         }
     }
-
-
-
 }
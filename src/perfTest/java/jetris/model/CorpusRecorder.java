@@ -0,0 +1,93 @@
+package jetris.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import jetris.model.Tetromino.Shape;
+
+/**
+ * Records the corpus replayed by {@link PerformanceSuite}: games played
+ * by a {@link GreedyBot} through a {@link GameController}, gravity and
+ * all, so that replaying the inputs at the same times plays the same
+ * games.
+ * <p>
+ * Run as a program, e.g. <tt>CorpusRecorder src/perfTest/resources/corpus.txt</tt>,
+ * after a change to the rules of the game; the baseline must then be
+ * updated too.
+ */
+public class CorpusRecorder {
+
+    private static final int GAMES = 10;
+
+    private static final int MAX_PIECES = 400;
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args[0]);
+        GameCorpus corpus = new GameCorpus();
+        for (int game = 0; game < GAMES; game++) {
+            corpus.add(game, record(game));
+        }
+        corpus.save(file);
+    }
+
+    private static List<Action> record(long seed) {
+        VirtualGameClock clock = new VirtualGameClock();
+        GameModel[] model = new GameModel[1];
+        GameController controller = new GameController(changed -> model[0] = changed, clock);
+        controller.startGame(new SeededTetrominoFactory(seed));
+        List<Action> played = new ArrayList<>();
+        Game planner = new RecordingGame(played);
+        GreedyBot bot = new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, planner.width());
+        while ((model[0].state() == GameModel.GameState.ACTIVE) && (model[0].pieces() < MAX_PIECES)) {
+            int from = played.size();
+            planner.copyFrom(model[0].game());
+            bot.move(planner);
+            for (int i = from; i < played.size(); i++) {
+                Action action = played.get(i);
+                clock.schedule((i + 1) * GameCorpus.INPUT_INTERVAL, () -> GameCorpus.play(controller, action));
+            }
+            clock.advanceBy((played.size() * GameCorpus.INPUT_INTERVAL) - clock.currentTime());
+        }
+        return played;
+    }
+
+    /**
+     * A game that records the inputs a bot plays in it
+     */
+    private static final class RecordingGame extends Game {
+
+        private final List<Action> played;
+
+        RecordingGame(List<Action> played) {
+            super(() -> Tetromino.of(Shape.I), GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, GameEvents.NONE);
+            this.played = played;
+        }
+
+        @Override
+        boolean moveActiveTetrominoLeft() {
+            played.add(Action.LEFT);
+            return super.moveActiveTetrominoLeft();
+        }
+
+        @Override
+        boolean moveActiveTetrominoRight() {
+            played.add(Action.RIGHT);
+            return super.moveActiveTetrominoRight();
+        }
+
+        @Override
+        boolean rotateActiveTetrominoRight() {
+            played.add(Action.ROTATE_RIGHT);
+            return super.rotateActiveTetrominoRight();
+        }
+
+        @Override
+        boolean dropActiveTetrominoDown() {
+            played.add(Action.DROP);
+            return super.dropActiveTetrominoDown();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package jetris.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorded games: the seed of the tetrominos of each game and the
+ * {@link Action}s played, an input every {@link #INPUT_INTERVAL}
+ * milliseconds of game time from the start.
+ * <p>
+ * Each game is a line of the corpus file, its seed then its actions as
+ * the digits of their ordinals, e.g. <tt>7 0051</tt> for left, left, drop
+ * then right.
+ */
+final class GameCorpus {
+
+    static final long INPUT_INTERVAL = 50;
+
+    private static final Action[] ACTIONS = Action.values();
+
+    private final List<Long> seeds = new ArrayList<>();
+
+    private final List<Action[]> actions = new ArrayList<>();
+
+    void add(long seed, List<Action> played) {
+        seeds.add(seed);
+        actions.add(played.toArray(new Action[played.size()]));
+    }
+
+    int size() {
+        return seeds.size();
+    }
+
+    long seed(int game) {
+        return seeds.get(game);
+    }
+
+    Action[] actions(int game) {
+        return actions.get(game);
+    }
+
+    static GameCorpus load(Path file) throws IOException {
+        GameCorpus corpus = new GameCorpus();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+                List<Action> played = new ArrayList<>();
+                for (int i = space + 1; i < line.length(); i++) {
+                    played.add(ACTIONS[line.charAt(i) - '0']);
+                }
+                corpus.add(Long.parseLong(line.substring(0, space)), played);
+            }
+        }
+        return corpus;
+    }
+
+    void save(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int game = 0; game < size(); game++) {
+                writer.write(Long.toString(seed(game)));
+                writer.write(' ');
+                for (Action action : actions(game)) {
+                    writer.write('0' + action.ordinal());
+                }
+                writer.write(System.lineSeparator());
+            }
+        }
+    }
+
+    /**
+     * Plays an action through a controller, as the key press would
+     */
+    static void play(GameController controller, Action action) {
+        switch (action) {
+          case LEFT: controller.moveLeft(); break;
+          case RIGHT: controller.moveRight(); break;
+          case ROTATE_LEFT: controller.rotateLeft(); break;
+          case ROTATE_RIGHT: controller.rotateRight(); break;
+          case DOWN: controller.moveDown(); break;
+          default:
+              assert action == Action.DROP;
+              controller.dropDown();
+        }
+    }
+}
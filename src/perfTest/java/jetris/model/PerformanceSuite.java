@@ -0,0 +1,245 @@
+package jetris.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.management.ThreadMXBean;
+
+import jetris.metrics.LatencyHistogram;
+
+/**
+ * Replays the recorded games of a {@link GameCorpus} through
+ * {@link GameController}s on {@link VirtualGameClock}s, as fast as they
+ * will go, and compares how quickly and frugally they were played with a
+ * baseline.
+ * <p>
+ * The corpus is replayed a few times to warm up, then measured over
+ * several rounds:
+ * <ul>
+ * <li>the throughput, in pieces placed per second, the median of the
+ *     rounds</li>
+ * <li>the latency of each input, its 50th and 99th percentiles over all
+ *     rounds</li>
+ * <li>the bytes allocated per piece, the least of the rounds</li>
+ * </ul>
+ * The lines cleared and score of the corpus must match the baseline
+ * exactly, as a change to them means the corpus no longer replays the
+ * games recorded.  Each measure may be worse than the baseline by its
+ * tolerance, a fraction of the baseline, before it is a regression; the
+ * timings depend on the machine, so their tolerances are wide.
+ * <p>
+ * Run as a program by the <tt>perfTest</tt> task, with the corpus,
+ * baseline and results files, and <tt>--update-baseline</tt> to record
+ * the measures as the new baseline.  Exits with a status of 1 on a
+ * regression.
+ */
+public class PerformanceSuite {
+
+    private static final int WARM_UP_ROUNDS = 20;
+
+    private static final int ROUNDS = 10;
+
+    private static final String TOLERANCE = ".tolerance";
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * The measures compared with the baseline
+     */
+    enum Measure {
+        PIECES_PER_SECOND("piecesPerSecond", true, 0.5),
+        INPUT_LATENCY_P50_NANOS("inputLatencyP50Nanos", false, 2),
+        INPUT_LATENCY_P99_NANOS("inputLatencyP99Nanos", false, 4),
+        BYTES_PER_PIECE("bytesPerPiece", false, 0.25);
+
+        private final String key;
+        private final boolean isHigherBetter;
+        private final double tolerance;
+
+        Measure(String key, boolean isHigherBetter, double tolerance) {
+            this.key = key;
+            this.isHigherBetter = isHigherBetter;
+            this.tolerance = tolerance;
+        }
+
+        /**
+         * @return <tt>true</tt> if the measured value is worse than the
+         *         baseline by more than the tolerance
+         */
+        boolean isRegression(double measured, double baseline, double tolerance) {
+            if (isHigherBetter) {
+                return measured < (baseline * (1 - tolerance));
+            }
+            return measured > (baseline * (1 + tolerance));
+        }
+    }
+
+    private final GameCorpus corpus;
+    private final LatencyHistogram inputLatency = new LatencyHistogram();
+    private final List<VirtualGameClock> clocks = new ArrayList<>();
+    private final GameModel[] models;
+    private long lines;
+    private long score;
+    private long pieces;
+    private long allocated;
+
+    PerformanceSuite(GameCorpus corpus) {
+        this.corpus = corpus;
+        this.models = new GameModel[corpus.size()];
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path baselineFile = Paths.get(args[1]);
+        Path resultsFile = Paths.get(args[2]);
+        boolean isUpdatingBaseline = Arrays.asList(args).contains("--update-baseline");
+        PerformanceSuite suite = new PerformanceSuite(GameCorpus.load(Paths.get(args[0])));
+        Properties results = suite.run();
+        Files.createDirectories(resultsFile.toAbsolutePath().getParent());
+        store(results, resultsFile);
+        if (isUpdatingBaseline) {
+            for (Measure measure : Measure.values()) {
+                results.setProperty(measure.key + TOLERANCE, Double.toString(measure.tolerance));
+            }
+            store(results, baselineFile);
+            System.out.println("Updated baseline " + baselineFile);
+            return;
+        }
+        List<String> regressions = compare(results, load(baselineFile));
+        if (!regressions.isEmpty()) {
+            regressions.forEach(System.err::println);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the measures, and the lines and score of the corpus
+     */
+    Properties run() {
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            replay();
+        }
+        inputLatency.reset();
+        double[] piecesPerSecond = new double[ROUNDS];
+        long bytesPerPiece = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long nanos = replay();
+            piecesPerSecond[round] = (pieces * (double) TimeUnit.SECONDS.toNanos(1)) / nanos;
+            bytesPerPiece = Math.min(bytesPerPiece, allocated / pieces);
+        }
+        Arrays.sort(piecesPerSecond);
+        Properties results = new Properties();
+        results.setProperty("lines", Long.toString(lines));
+        results.setProperty("score", Long.toString(score));
+        results.setProperty(Measure.PIECES_PER_SECOND.key, Long.toString(Math.round(piecesPerSecond[ROUNDS / 2])));
+        results.setProperty(Measure.INPUT_LATENCY_P50_NANOS.key, Long.toString(Math.round(inputLatency.percentile(50, TimeUnit.NANOSECONDS))));
+        results.setProperty(Measure.INPUT_LATENCY_P99_NANOS.key, Long.toString(Math.round(inputLatency.percentile(99, TimeUnit.NANOSECONDS))));
+        results.setProperty(Measure.BYTES_PER_PIECE.key, Long.toString(bytesPerPiece));
+        return results;
+    }
+
+    /**
+     * @return a description of each measure worse than its baseline by
+     *         more than its tolerance, or of a change in the games played
+     */
+    static List<String> compare(Properties results, Properties baseline) {
+        List<String> regressions = new ArrayList<>();
+        for (String key : new String[] { "lines", "score" }) {
+            if (!results.getProperty(key).equals(baseline.getProperty(key))) {
+                regressions.add("Corpus replayed " + results.getProperty(key) + " " + key + ", not " + baseline.getProperty(key)
+                                + ": re-record the corpus and update the baseline if the rules have changed");
+            }
+        }
+        for (Measure measure : Measure.values()) {
+            double measured = Double.parseDouble(results.getProperty(measure.key));
+            double expected = Double.parseDouble(baseline.getProperty(measure.key));
+            double tolerance = Double.parseDouble(baseline.getProperty(measure.key + TOLERANCE, Double.toString(measure.tolerance)));
+            if (measure.isRegression(measured, expected, tolerance)) {
+                regressions.add(measure.key + " regressed to " + measured + " from a baseline of " + expected
+                                + " (tolerance " + tolerance + ")");
+            }
+        }
+        return regressions;
+    }
+
+    /*
+     * Every input is scheduled before the games start, so only playing
+     * them is timed and their allocation counted
+     * @return the nanoseconds taken to play every game
+     */
+    private long replay() {
+        schedule();
+        long thread = Thread.currentThread().getId();
+        long bytes = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (VirtualGameClock clock : clocks) {
+            clock.run();
+        }
+        long nanos = System.nanoTime() - start;
+        allocated = THREADS.getThreadAllocatedBytes(thread) - bytes;
+        lines = 0;
+        score = 0;
+        pieces = 0;
+        for (GameModel model : models) {
+            lines += model.lines();
+            score += model.score();
+            pieces += model.pieces();
+        }
+        return nanos;
+    }
+
+    private void schedule() {
+        clocks.clear();
+        for (int game = 0; game < corpus.size(); game++) {
+            int index = game;
+            VirtualGameClock clock = new VirtualGameClock();
+            GameController controller = new GameController(model -> models[index] = model, clock);
+            controller.startGame(new SeededTetrominoFactory(corpus.seed(game)));
+            Action[] actions = corpus.actions(game);
+            for (int i = 0; i < actions.length; i++) {
+                Action action = actions[i];
+                clock.schedule((i + 1) * GameCorpus.INPUT_INTERVAL, () -> input(controller, action));
+            }
+            clock.schedule((actions.length + 1) * GameCorpus.INPUT_INTERVAL, controller::endGame);
+            clocks.add(clock);
+        }
+    }
+
+    private void input(GameController controller, Action action) {
+        long start = System.nanoTime();
+        GameCorpus.play(controller, action);
+        inputLatency.record(System.nanoTime() - start);
+    }
+
+    private static Properties load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    /*
+     * Sorted by key and without a timestamp, so that changes to the
+     * baseline are easily reviewed
+     */
+    private static void store(Properties properties, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# Replay of the performance corpus" + System.lineSeparator());
+            for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+                writer.write(key + "=" + properties.getProperty(key) + System.lineSeparator());
+            }
+        }
+    }
+}
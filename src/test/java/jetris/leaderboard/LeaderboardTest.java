@@ -0,0 +1,189 @@
+package jetris.leaderboard;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LeaderboardTest {
+
+    private static final int CAPACITY = 10;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+
+    private Leaderboard leaderboard;
+
+    @Before
+    public void openLeaderboard() throws Exception {
+        file = folder.getRoot().toPath().resolve("scores.csv");
+        leaderboard = Leaderboard.open(file, CAPACITY);
+    }
+
+    @After
+    public void closeLeaderboard() throws Exception {
+        leaderboard.close();
+    }
+
+    @Test
+    public void shouldRankHighestScoreFirst() throws Exception {
+        leaderboard.submit("alice", 300, 3, 1);
+        leaderboard.submit("bob", 500, 5, 1);
+        leaderboard.submit("carol", 100, 1, 1);
+        assertThat(playersOf(leaderboard.top(2)), contains("bob", "alice"));
+    }
+
+    @Test
+    public void shouldRankEarlierSubmissionFirstForEqualScores() throws Exception {
+        HighScore first = leaderboard.submit("alice", 300, 3, 1);
+        HighScore second = leaderboard.submit("bob", 300, 3, 1);
+        assertThat(leaderboard.rank(first), is(1));
+        assertThat(leaderboard.rank(second), is(2));
+        assertThat(leaderboard.rankOf(300), is(3));
+        assertThat(leaderboard.rankOf(301), is(1));
+    }
+
+    @Test
+    public void shouldRankLowestPossibleScoreLast() throws Exception {
+        leaderboard.submit("alice", Integer.MIN_VALUE, 0, 1);
+        leaderboard.submit("bob", 0, 0, 1);
+        assertThat(playersOf(leaderboard.top(2)), contains("bob", "alice"));
+    }
+
+    @Test
+    public void shouldKeepOnlyBestScores() throws Exception {
+        HighScore lowest = leaderboard.submit("alice", 1, 0, 1);
+        for (int score = 100; score < 100 + CAPACITY; score++) {
+            leaderboard.submit("bob", score, 0, 1);
+        }
+        assertThat(leaderboard.size(), is(CAPACITY));
+        assertThat(leaderboard.rank(lowest), is(0));
+    }
+
+    @Test
+    public void shouldRestoreScoresWhenReopened() throws Exception {
+        leaderboard.submit("alice", 300, 3, 2);
+        leaderboard.submit("bob, the builder", 500, 5, 1);
+        leaderboard.close();
+        leaderboard = Leaderboard.open(file, CAPACITY);
+        List<HighScore> top = leaderboard.top(CAPACITY);
+        assertThat(playersOf(top), contains("bob, the builder", "alice"));
+        assertThat(top.get(1).lines(), is(3));
+        assertThat(top.get(1).level(), is(2));
+    }
+
+    @Test
+    public void shouldCompactFileToScoresKept() throws Exception {
+        for (int score = 0; score < 10 * CAPACITY; score++) {
+            leaderboard.submit("alice", score, 0, 1);
+        }
+        assertThat(Files.readAllLines(file).size(), lessThan(2 * CAPACITY));
+        leaderboard.compact();
+        assertThat(Files.readAllLines(file).size(), is(CAPACITY));
+        leaderboard.close();
+        leaderboard = Leaderboard.open(file, CAPACITY);
+        assertThat(leaderboard.top(1).get(0).score(), is((10 * CAPACITY) - 1));
+    }
+
+    @Test
+    public void shouldRetryFailedCompactionOnlyOnceCapacityMoreAppended() throws Exception {
+        // a directory in the way of the compacted file
+        Files.createDirectory(file.resolveSibling(file.getFileName() + ".compact"));
+        for (int score = 1; score < 2 * CAPACITY; score++) {
+            leaderboard.submit("alice", score, 0, 1);
+        }
+        try {
+            leaderboard.submit("alice", 0, 0, 1);
+            fail("Compaction should have failed");
+        } catch (IOException e) {
+            // expected
+        }
+        for (int score = 1; score < CAPACITY; score++) {
+            leaderboard.submit("bob", score, 0, 1);
+        }
+        assertThat(Files.readAllLines(file).size(), is(3 * CAPACITY - 1));
+    }
+
+    @Test
+    public void shouldDropScoreTornWhileAppended() throws Exception {
+        leaderboard.submit("alice", 300, 3, 2);
+        leaderboard.close();
+        Files.write(file, "500,5,1,".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        leaderboard = Leaderboard.open(file, CAPACITY);
+        leaderboard.submit("bob", 100, 1, 1);
+        leaderboard.close();
+        leaderboard = Leaderboard.open(file, CAPACITY);
+        assertThat(playersOf(leaderboard.top(CAPACITY)), contains("alice", "bob"));
+    }
+
+    @Test
+    public void shouldEndLastScoreMissingLineFeed() throws Exception {
+        leaderboard.close();
+        Files.write(file, "300,3,2,0,alice".getBytes(StandardCharsets.UTF_8));
+        leaderboard = Leaderboard.open(file, CAPACITY);
+        leaderboard.submit("bob", 100, 1, 1);
+        leaderboard.close();
+        leaderboard = Leaderboard.open(file, CAPACITY);
+        assertThat(playersOf(leaderboard.top(CAPACITY)), contains("alice", "bob"));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectFileMalformedBeforeLastScore() throws Exception {
+        leaderboard.close();
+        Files.write(file, "300,3,\n100,1,1,0,bob\n".getBytes(StandardCharsets.UTF_8));
+        leaderboard = Leaderboard.open(file, CAPACITY);
+    }
+
+    @Test
+    public void shouldAcceptConcurrentSubmissions() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> submissions = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int offset = thread;
+                submissions.add(executor.submit(() -> {
+                    for (int score = offset; score < 1000; score += 4) {
+                        leaderboard.submit("player" + offset, score, 0, 1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> submission : submissions) {
+                submission.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        List<HighScore> top = leaderboard.top(CAPACITY);
+        assertThat(top.get(0).score(), is(999));
+        assertThat(top.get(CAPACITY - 1).score(), is(1000 - CAPACITY));
+        leaderboard.close();
+        leaderboard = Leaderboard.open(file, CAPACITY);
+        assertThat(leaderboard.top(CAPACITY).get(CAPACITY - 1).score(), is(1000 - CAPACITY));
+    }
+
+    private static List<String> playersOf(List<HighScore> highScores) {
+        return highScores.stream().map(HighScore::player).collect(Collectors.toList());
+    }
+}
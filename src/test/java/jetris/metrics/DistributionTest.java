@@ -0,0 +1,57 @@
+package jetris.metrics;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class DistributionTest {
+
+    private final Distribution distribution = new Distribution();
+
+    @Test
+    public void shouldBeEmptyInitially() throws Exception {
+        assertThat(distribution.count(), is(0L));
+        assertThat(distribution.min(), is(0L));
+        assertThat(distribution.percentile(50), is(0L));
+    }
+
+    @Test
+    public void shouldRecordSmallValuesExactly() throws Exception {
+        for (int level = 1; level <= 10; level++) {
+            distribution.record(level);
+        }
+        assertThat(distribution.min(), is(1L));
+        assertThat(distribution.max(), is(10L));
+        assertThat(distribution.mean(), is(5.5));
+        assertThat(distribution.percentile(50), is(5L));
+        assertThat(distribution.percentile(90), is(9L));
+    }
+
+    @Test
+    public void shouldApproximatePercentilesOfLargeValues() throws Exception {
+        for (int score = 1; score <= 100000; score++) {
+            distribution.record(score);
+        }
+        assertThat((double) distribution.percentile(50), is(closeTo(50000, 3000)));
+        assertThat((double) distribution.percentile(99), is(closeTo(99000, 6000)));
+        assertThat(distribution.max(), is(100000L));
+    }
+
+    @Test
+    public void shouldMergeToSameDistributionAsRecordingAll() throws Exception {
+        Distribution odd = new Distribution();
+        Distribution even = new Distribution();
+        for (int value = 1; value <= 1000; value++) {
+            distribution.record(value);
+            ((value % 2 == 0) ? even : odd).record(value);
+        }
+        Distribution merged = odd.merge(even);
+        assertThat(merged.count(), is(distribution.count()));
+        assertThat(merged.mean(), is(distribution.mean()));
+        assertThat(merged.min(), is(1L));
+        assertThat(merged.max(), is(1000L));
+        assertThat(merged.percentile(75), is(distribution.percentile(75)));
+    }
+}
@@ -0,0 +1,65 @@
+package jetris.metrics;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class FrameMetricsTest {
+
+    private final FrameMetrics metrics = new FrameMetrics();
+
+    @Test
+    public void shouldRecordDelaysFromEarliestUnpaintedChange() throws Exception {
+        metrics.modelChanged();
+        metrics.modelChanged();
+        metrics.modelReceived();
+        metrics.framePainted(System.nanoTime());
+        assertThat(metrics.eventQueueDelay().count(), is(1L));
+        assertThat(metrics.changeToPaintLatency().count(), is(1L));
+        assertThat(metrics.paintTime().count(), is(1L));
+        assertThat(metrics.coalescedChanges(), is(1L));
+    }
+
+    @Test
+    public void shouldNotRecordChangeLatencyForRepaintsWithoutChanges() throws Exception {
+        metrics.framePainted(System.nanoTime());
+        metrics.modelReceived();
+        assertThat(metrics.paintTime().count(), is(1L));
+        assertThat(metrics.changeToPaintLatency().count(), is(0L));
+        assertThat(metrics.eventQueueDelay().count(), is(0L));
+    }
+
+    @Test
+    public void shouldCountChangesCoalescedAfterRepaintsWithoutChanges() throws Exception {
+        metrics.framePainted(System.nanoTime());
+        metrics.modelChanged();
+        metrics.modelChanged();
+        metrics.framePainted(System.nanoTime());
+        metrics.modelChanged();
+        metrics.framePainted(System.nanoTime());
+        assertThat(metrics.coalescedChanges(), is(1L));
+    }
+
+    @Test
+    public void shouldNotMeasureChangesFromBeforeReset() throws Exception {
+        metrics.modelChanged();
+        metrics.reset();
+        metrics.modelReceived();
+        metrics.framePainted(System.nanoTime());
+        assertThat(metrics.eventQueueDelay().count(), is(0L));
+        assertThat(metrics.changeToPaintLatency().count(), is(0L));
+    }
+
+    @Test
+    public void shouldEstimateFrameRate() throws Exception {
+        assertThat(metrics.framesPerSecond(), is(0.0));
+        for (int i = 0; i < 5; i++) {
+            metrics.framePainted(System.nanoTime());
+            Thread.sleep(10);
+        }
+        assertThat(metrics.frames(), is(5L));
+        assertThat(metrics.framesPerSecond(), greaterThan(0.0));
+    }
+}
@@ -0,0 +1,67 @@
+package jetris.metrics;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import jetris.metrics.InputLatencyTracer.Stage;
+
+public class InputLatencyTracerTest {
+
+    private final InputLatencyTracer tracer = new InputLatencyTracer();
+
+    @Test
+    public void shouldRecordEachStageOnceChangeIsPainted() throws Exception {
+        tracer.trace(System.nanoTime(), () -> tracer.modelChanged()).run();
+        assertThat(tracer.latencyOf(Stage.TOTAL).count(), is(0L));
+
+        tracer.modelReceived();
+        tracer.framePainted();
+        for (Stage stage : Stage.values()) {
+            assertThat(tracer.latencyOf(stage).count(), is(1L));
+        }
+    }
+
+    @Test
+    public void shouldTraceCommandExecutedOnAnotherThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.execute(tracer.trace(System.nanoTime(), () -> tracer.modelChanged()));
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        tracer.modelReceived();
+        tracer.framePainted();
+        assertThat(tracer.latencyOf(Stage.TOTAL).count(), is(1L));
+    }
+
+    @Test
+    public void shouldNotTraceChangesMadeOutsideOfCommands() throws Exception {
+        tracer.modelChanged();
+        tracer.modelReceived();
+        tracer.framePainted();
+        assertThat(tracer.latencyOf(Stage.TOTAL).count(), is(0L));
+    }
+
+    @Test
+    public void shouldCountCommandsThatDoNotChangeModel() throws Exception {
+        tracer.trace(System.nanoTime(), () -> {}).run();
+        assertThat(tracer.unchanged().count(), is(1L));
+    }
+
+    @Test
+    public void shouldExportStagesAsCommaSeparatedValues() throws Exception {
+        StringBuilder output = new StringBuilder();
+        tracer.export(output);
+        assertThat(output.toString(), containsString("stage,count,mean,p50,p90,p99,p999,max\n"));
+        assertThat(output.toString(), containsString("\nTOTAL,0,0.0,"));
+    }
+}
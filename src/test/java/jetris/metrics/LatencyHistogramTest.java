@@ -0,0 +1,61 @@
+package jetris.metrics;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void shouldBeEmptyInitially() throws Exception {
+        assertThat(histogram.count(), is(0L));
+        assertThat(histogram.percentile(99, TimeUnit.NANOSECONDS), is(0.0));
+        assertThat(histogram.mean(TimeUnit.NANOSECONDS), is(0.0));
+    }
+
+    @Test
+    public void shouldRecordExactSmallValues() throws Exception {
+        histogram.record(3);
+        histogram.record(5);
+        assertThat(histogram.count(), is(2L));
+        assertThat(histogram.percentile(50, TimeUnit.NANOSECONDS), is(3.0));
+        assertThat(histogram.percentile(100, TimeUnit.NANOSECONDS), is(5.0));
+        assertThat(histogram.max(TimeUnit.NANOSECONDS), is(5.0));
+        assertThat(histogram.mean(TimeUnit.NANOSECONDS), is(4.0));
+    }
+
+    @Test
+    public void shouldEstimatePercentilesWithinBucketPrecision() throws Exception {
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        assertThat(histogram.percentile(50, TimeUnit.MICROSECONDS), closeTo(500, 500 * 0.07));
+        assertThat(histogram.percentile(90, TimeUnit.MICROSECONDS), closeTo(900, 900 * 0.07));
+        assertThat(histogram.percentile(99, TimeUnit.MICROSECONDS), closeTo(990, 990 * 0.07));
+        assertThat(histogram.max(TimeUnit.MICROSECONDS), is(1000.0));
+    }
+
+    @Test
+    public void shouldMapEveryValueToBucketWithLowerBoundNotAboveIt() throws Exception {
+        long[] values = { 0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE };
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertThat(LatencyHistogram.lowerBoundOf(bucket) <= value, is(true));
+            assertThat(LatencyHistogram.bucketOf(LatencyHistogram.lowerBoundOf(bucket)), is(bucket));
+        }
+    }
+
+    @Test
+    public void shouldClearRecordedValuesOnReset() throws Exception {
+        histogram.record(100);
+        histogram.reset();
+        assertThat(histogram.count(), is(0L));
+        assertThat(histogram.max(TimeUnit.NANOSECONDS), is(0.0));
+    }
+}
@@ -0,0 +1,83 @@
+package jetris.model;
+
+import java.util.Random;
+
+/**
+ * Compares the two ways of finding where a piece fits in each row of
+ * boards of increasing width: testing up to 64 columns at once with
+ * {@link Bitboard#freeColumnsByWord}, or testing each placement in turn,
+ * a block at a time, with {@link Bitboard#freeColumnsByPlacement}.  The
+ * width at which testing by word becomes quicker sets
+ * {@link Bitboard#WORD_PARALLEL_COLUMNS}.
+ * <p>
+ * Run as a program; it is not a test.
+ */
+public class BitboardBenchmark {
+
+    private static final int ROWS = 20;
+
+    private static final int ITERATIONS = 2000;
+
+    // T:  ooo
+    //      o
+    private static final long[] PIECE = { 0b111, 0b010 };
+
+    private static final int PIECE_WIDTH = 3;
+
+    public static void main(String[] args) {
+        System.out.println("columns,eachPlacementNanos,allColumnsNanos");
+        for (int round = 0; round < 3; round++) {
+            for (int width : new int[] { 4, 10, 16, 32, 64, 128, 256, 1024 }) {
+                Bitboard board = randomBoard(width);
+                long eachPlacement = measure(board, false);
+                long allColumns = measure(board, true);
+                if (round > 0) {
+                    System.out.printf("%d,%.1f,%.1f%n",
+                                      width,
+                                      eachPlacement / (double) (ITERATIONS * ROWS),
+                                      allColumns / (double) (ITERATIONS * ROWS));
+                }
+            }
+        }
+    }
+
+    private static long measure(Bitboard board, boolean isAllColumns) {
+        long[] columns = new long[(board.width() + 63) / 64];
+        long placements = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (int y = 0; y < ROWS; y++) {
+                if (isAllColumns) {
+                    board.freeColumnsByWord(PIECE, PIECE_WIDTH, y, columns);
+                }
+                else {
+                    board.freeColumnsByPlacement(PIECE, PIECE_WIDTH, y, columns);
+                }
+                for (long word : columns) {
+                    placements += Long.bitCount(word);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (placements < 0) {
+            throw new IllegalStateException();
+        }
+        return elapsed;
+    }
+
+    /*
+     * Rows increasingly full towards the bottom
+     */
+    private static Bitboard randomBoard(int width) {
+        Random random = new Random(width);
+        Bitboard board = new Bitboard(width, ROWS);
+        for (int y = 0; y < ROWS; y++) {
+            for (int x = 0; x < width; x++) {
+                if (random.nextInt(ROWS) < y) {
+                    board.occupy(x, y);
+                }
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,134 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BitboardTest {
+
+    @Test
+    public void shouldOccupyCellsOfNarrowBoard() throws Exception {
+        Bitboard board = new Bitboard(10, 17);
+        board.occupy(9, 16);
+        assertThat(board.isOccupied(9, 16), is(true));
+        assertThat(board.isOccupied(8, 16), is(false));
+        assertThat(board.isOccupied(9, 15), is(false));
+    }
+
+    @Test
+    public void shouldOccupyCellsAboveBoard() throws Exception {
+        Bitboard board = new Bitboard(10, 17);
+        board.occupy(3, -2);
+        assertThat(board.isOccupied(3, -2), is(true));
+        assertThat(board.isFull(-2), is(false));
+    }
+
+    @Test
+    public void shouldOccupyCellsAcrossWordsOfWideBoard() throws Exception {
+        Bitboard board = new Bitboard(200, 5);
+        board.occupy(63, 1);
+        board.occupy(64, 1);
+        board.occupy(199, 1);
+        assertThat(board.isOccupied(63, 1), is(true));
+        assertThat(board.isOccupied(64, 1), is(true));
+        assertThat(board.isOccupied(199, 1), is(true));
+        assertThat(board.isOccupied(65, 1), is(false));
+        assertThat(board.isOccupied(127, 1), is(false));
+    }
+
+    @Test
+    public void shouldDetectFullRowOfBoardOfEachWidth() throws Exception {
+        for (int width : new int[] { 4, 10, 63, 64, 65, 128, 256, 300 }) {
+            Bitboard board = new Bitboard(width, 3);
+            fillRow(board, 2, width - 1);
+            assertThat("width " + width, board.isFull(2), is(false));
+            board.occupy(width - 1, 2);
+            assertThat("width " + width, board.isFull(2), is(true));
+            assertThat("width " + width, board.isFull(1), is(false));
+        }
+    }
+
+    @Test
+    public void shouldMoveRowsAboveDownWhenFullRowsRemoved() throws Exception {
+        Bitboard board = new Bitboard(100, 6);
+        fillRow(board, 5, 100);
+        board.occupy(70, 4);
+        fillRow(board, 3, 100);
+        board.occupy(99, 2);
+        board.occupy(1, -1);
+        board.removeFullRows();
+        assertThat(board.isFull(5), is(false));
+        assertThat(board.isOccupied(70, 5), is(true));
+        assertThat(board.isOccupied(99, 4), is(true));
+        assertThat(board.isOccupied(1, 1), is(true));
+        assertThat(board.isOccupied(99, 2), is(false));
+        assertThat(board.isOccupied(1, -1), is(false));
+    }
+
+    @Test
+    public void shouldFindSameColumnsAsTestingEachPlacement() throws Exception {
+        Random random = new Random(42);
+        Bitboard board = new Bitboard(150, 8);
+        for (int i = 0; i < 600; i++) {
+            board.occupy(random.nextInt(150), random.nextInt(8));
+        }
+        // S:  .oo
+        //     oo.
+        long[] s = { 0b110, 0b011 };
+        long[] columns = new long[3];
+        long[] expected = new long[3];
+        for (int y = -1; y < 8; y++) {
+            board.freeColumnsByWord(s, 3, y, columns);
+            board.freeColumnsByPlacement(s, 3, y, expected);
+            assertThat("y=" + y, columns, is(expected));
+        }
+    }
+
+    @Test
+    public void shouldFindColumnsPieceFitsAt() throws Exception {
+        // |..........|
+        // |...o......|
+        // |o.oo....oo|
+        Bitboard board = new Bitboard(10, 3);
+        board.occupy(3, 1);
+        for (int x : new int[] { 0, 2, 3, 8, 9 }) {
+            board.occupy(x, 2);
+        }
+        // T:  ooo
+        //      o
+        long[] t = { 0b111, 0b010 };
+        long[] columns = new long[1];
+        board.freeColumns(t, 3, 1, columns);
+        assertThat(columns[0], is(0b0001110001L));
+        board.freeColumns(t, 3, 2, columns);
+        assertThat(columns[0], is(0L));
+    }
+
+    @Test
+    public void shouldFindColumnsPieceFitsAtAcrossWords() throws Exception {
+        Bitboard board = new Bitboard(130, 2);
+        fillRow(board, 1, 130);
+        long[] columns = new long[3];
+        // I: oooo
+        board.freeColumns(new long[] { 0b1111 }, 4, 0, columns);
+        // the last placement is at column 126
+        assertThat(columns[0], is(-1L));
+        assertThat(columns[1], is(Long.MAX_VALUE));
+        assertThat(columns[2], is(0L));
+        board.occupy(64, 0);
+        board.freeColumns(new long[] { 0b1111 }, 4, 0, columns);
+        assertThat(columns[0] >>> 61, is(0L));
+        assertThat(columns[1] & 1, is(0L));
+        assertThat(columns[1] & 2, is(2L));
+        assertThat(Long.bitCount(columns[0]) + Long.bitCount(columns[1]) + Long.bitCount(columns[2]), is(127 - 4));
+    }
+
+    private static void fillRow(Bitboard board, int y, int columns) {
+        for (int x = 0; x < columns; x++) {
+            board.occupy(x, y);
+        }
+    }
+}
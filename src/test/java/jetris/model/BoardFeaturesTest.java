@@ -0,0 +1,116 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BoardFeaturesTest {
+
+    private final Bitboard board = new Bitboard(4, 4);
+
+    private final int[] features = new int[Feature.values().length];
+
+    @Test
+    public void shouldMeasureEmptyBoard() throws Exception {
+        BoardFeatures.measure(board, 0, features);
+        assertThat(feature(Feature.HEIGHT), is(0));
+        assertThat(feature(Feature.HOLES), is(0));
+        assertThat(feature(Feature.BUMPINESS), is(0));
+        assertThat(feature(Feature.ROW_TRANSITIONS), is(8));
+        assertThat(feature(Feature.COLUMN_TRANSITIONS), is(4));
+        assertThat(feature(Feature.WELLS), is(0));
+    }
+
+    /*
+     *   |....|
+     *   |.X..|
+     *   |X.X.|
+     *   |XXX.|
+     */
+    @Test
+    public void shouldMeasureHeightsHolesAndWells() throws Exception {
+        occupy(1, 1);
+        occupy(0, 2);
+        occupy(2, 2);
+        occupy(0, 3);
+        occupy(1, 3);
+        occupy(2, 3);
+        BoardFeatures.measure(board, 2, features);
+        assertThat(feature(Feature.LINES), is(2));
+        assertThat(feature(Feature.HEIGHT), is(2 + 3 + 2 + 0));
+        assertThat(feature(Feature.HOLES), is(1));
+        assertThat(feature(Feature.BUMPINESS), is(1 + 1 + 2));
+        assertThat(feature(Feature.ROW_TRANSITIONS), is(2 + 4 + 4 + 2));
+        assertThat(feature(Feature.COLUMN_TRANSITIONS), is(1 + 3 + 1 + 1));
+        assertThat(feature(Feature.WELLS), is(1 + (1 + 2)));
+    }
+
+    @Test
+    public void shouldMaintainSameFeaturesAsMeasuredFromScratch() throws Exception {
+        for (int width : new int[] { 4, 10, 70 }) {
+            Game game = new Game(new SeededTetrominoFactory(width), width, 12, GameEvents.NONE);
+            Random random = new Random(width);
+            for (int piece = 0; piece < 200; piece++) {
+                for (int move = random.nextInt(2 * width) - width; move != 0; move -= Integer.signum(move)) {
+                    if (move < 0) {
+                        game.moveActiveTetrominoLeft();
+                    }
+                    else {
+                        game.moveActiveTetrominoRight();
+                    }
+                }
+                game.dropActiveTetrominoDown();
+                if (!game.activateNextTetromino()) {
+                    game.restart();
+                }
+                BoardFeatures.measure(game.board(), game.feature(Feature.LINES), features);
+                for (Feature feature : Feature.values()) {
+                    assertThat(feature + " of width " + width, game.feature(feature), is(features[feature.ordinal()]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldEvaluatePlacementsWithoutFixingThem() throws Exception {
+        for (int width : new int[] { 4, 10, 70 }) {
+            Game game = new Game(new SeededTetrominoFactory(width), width, 12, GameEvents.NONE);
+            PlacementGenerator generator = new PlacementGenerator(width);
+            Bitboard placed = new Bitboard(width, 12);
+            int[] evaluated = new int[features.length];
+            for (int piece = 0; piece < 100; piece++) {
+                int placements = generator.generate(game);
+                for (int i = 0; i < placements; i++) {
+                    Tetromino placement = generator.placement(i);
+                    game.evaluate(placement, evaluated);
+                    placed.copyFrom(game.board());
+                    for (Block block : placement.blocks()) {
+                        placed.occupy(block.x(), block.y());
+                    }
+                    int linesCleared = 0;
+                    for (int y = 0; y < 12; y++) {
+                        linesCleared += placed.isFull(y) ? 1 : 0;
+                    }
+                    placed.removeFullRows();
+                    BoardFeatures.measure(placed, linesCleared, features);
+                    assertThat(evaluated, is(features));
+                }
+                game.dropActiveTetrominoDown();
+                if (!game.activateNextTetromino()) {
+                    game.restart();
+                }
+            }
+        }
+    }
+
+    private void occupy(int x, int y) {
+        board.occupy(x, y);
+    }
+
+    private int feature(Feature feature) {
+        return features[feature.ordinal()];
+    }
+}
@@ -0,0 +1,97 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import jetris.model.GameModel.GameState;
+
+public class FlightRecorderEventsTest {
+
+    private final DeterministicGameClock clock = new DeterministicGameClock();
+
+    private final GameController gameController = new GameController(model -> { }, clock);
+
+    @Test
+    public void shouldRecordGameEngineEvents() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            gameController.startGame();
+            clock.fire();
+            while (gameController.metrics().getState().equals(GameState.ACTIVE.name())) {
+                gameController.dropDown();
+            }
+        });
+        assertThat(count(events, "jetris.GravityTick"), is(1L));
+        assertThat(count(events, "jetris.PieceLock"), greaterThan(0L));
+        assertThat(count(events, "jetris.ListenerDispatch"), greaterThan(count(events, "jetris.PieceLock")));
+    }
+
+    @Test
+    public void shouldRecordLinesClearedAndLevel() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            gameController.startGame(() -> Tetromino.of(Tetromino.Shape.O));
+            // five squares side by side complete the bottom two rows
+            for (int square = 0; square < 5; square++) {
+                for (int i = 0; i < GameModel.DEFAULT_WIDTH; i++) {
+                    gameController.moveLeft();
+                }
+                for (int i = 0; i < (2 * square); i++) {
+                    gameController.moveRight();
+                }
+                gameController.dropDown();
+            }
+        });
+        assertThat(count(events, "jetris.LineClear"), is(1L));
+        RecordedEvent lineClear = first(events, "jetris.LineClear");
+        assertThat(lineClear.getInt("rows"), is(2));
+        assertThat(lineClear.getInt("level"), is(1));
+    }
+
+    @Test
+    public void shouldNotRecordGamesSimulatedWithoutController() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            Game game = new Game(() -> Tetromino.of(Tetromino.Shape.O), GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, GameEvents.NONE);
+            GreedyBot bot = new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, GameModel.DEFAULT_WIDTH);
+            for (int i = 0; (i < 20) && bot.move(game); i++) {
+                // playing
+            }
+        });
+        assertThat(count(events, "jetris.PieceLock"), is(0L));
+        assertThat(count(events, "jetris.LineClear"), is(0L));
+    }
+
+    private static List<RecordedEvent> record(Runnable actions) throws Exception {
+        Path file = Files.createTempFile("jetris", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jetris.GravityTick").withoutThreshold();
+            recording.enable("jetris.PieceLock");
+            recording.enable("jetris.ListenerDispatch").withoutThreshold();
+            recording.enable("jetris.LineClear");
+            recording.start();
+            actions.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static RecordedEvent first(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).findFirst().get();
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).count();
+    }
+}
@@ -0,0 +1,188 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.function.IntConsumer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import jetris.model.Tetromino.Shape;
+
+/**
+ * Allocation budgets for the operations performed on every key press and
+ * gravity tick.  Each operation is warmed up first so that one off costs
+ * (e.g. class loading, tetromino placements seen for the first time) are
+ * excluded.
+ */
+public class GameAllocationTest {
+
+    private static final int REPETITIONS = 1000;
+
+    /*
+     * Long enough for the operations to be compiled, which otherwise
+     * allocates a little on the thread measured
+     */
+    private static final int WARM_UP_REPETITIONS = 5 * REPETITIONS;
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Before
+    public void checkAllocationMeasurementSupported() {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported());
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void shouldNotAllocateWhenMovingActiveTetromino() throws Exception {
+        Game game = gameThatCreates(Shape.I, Shape.I, Shape.O);
+        assertThat(bytesAllocatedBy(i -> {
+            game.moveActiveTetrominoLeft();
+            game.moveActiveTetrominoRight();
+        }), is(0L));
+    }
+
+    @Test
+    public void shouldNotAllocateWhenRotatingActiveTetromino() throws Exception {
+        Game game = gameThatCreates(Shape.T);
+        assertThat(bytesAllocatedBy(i -> {
+            game.rotateActiveTetrominoLeft();
+            game.rotateActiveTetrominoRight();
+        }), is(0L));
+    }
+
+    @Test
+    public void shouldNotAllocateWhenMoveBlockedByBoard() throws Exception {
+        Game game = gameThatCreates(Shape.T);
+        game.dropActiveTetrominoDown();
+        assertThat(bytesAllocatedBy(i -> game.moveActiveTetrominoDown()), is(0L));
+    }
+
+    @Test
+    public void shouldNotAllocateWhenDroppingActiveTetromino() throws Exception {
+        Game[] games = games(Shape.T);
+        assertThat(bytesAllocatedBy(i -> games[i].dropActiveTetrominoDown()), is(0L));
+    }
+
+    @Test
+    public void shouldLockTetrominoWithinBudget() throws Exception {
+        Game[] games = games(Shape.I, Shape.I, Shape.O);
+        for (Game game : games) {
+            game.dropActiveTetrominoDown();
+        }
+        // growing the list of fixed blocks
+        assertThat(bytesAllocatedBy(i -> games[i].activateNextTetromino()), lessThanOrEqualTo(128L * REPETITIONS));
+    }
+
+    @Test
+    public void shouldClearLinesWithinBudget() throws Exception {
+        Game[] games = games(Shape.I, Shape.I, Shape.I, Shape.I, Shape.O);
+        for (Game game : games) {
+            fillBottomRowsBarRightColumns(game);
+        }
+        // the blocks moved down and the sub list used to remove cleared
+        // blocks
+        assertThat(bytesAllocatedBy(i -> completeBottomRows(games[i])), lessThanOrEqualTo(512L * REPETITIONS));
+        assertThat(games[0].lines(), is(2));
+        assertThat(games[0].blocks().size(), is(4));
+    }
+
+    @Test
+    public void shouldNotAllocateWhenEncodingObservations() throws Exception {
+        GameModel model = new GameModel();
+        model.start(new SeededTetrominoFactory(1));
+        ObservationEncoder encoder = new ObservationEncoder(model.width(), model.height());
+        FloatBuffer buffer = ByteBuffer.allocateDirect(encoder.size() * Float.BYTES).asFloatBuffer();
+        assertThat(bytesAllocatedBy(i -> encoder.encode(model, buffer, 0)), is(0L));
+    }
+
+    @Test
+    public void shouldNotAllocateWhenSteppingVectorEnvironment() throws Exception {
+        VectorGameEnvironment environments = new VectorGameEnvironment(VectorGameEnvironment.SHARD_SIZE, 10, 17, 100, 1);
+        int[] actions = new int[environments.size()];
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = i % Action.values().length;
+        }
+        assertThat(bytesAllocatedBy(i -> environments.step(actions)), is(0L));
+    }
+
+    /*
+     * Total bytes allocated by REPETITIONS operations, after warming up.
+     * The operation is given the index of the repetition, of which there
+     * are WARM_UP_REPETITIONS + REPETITIONS
+     */
+    private static long bytesAllocatedBy(IntConsumer operation) {
+        for (int i = 0; i < WARM_UP_REPETITIONS; i++) {
+            operation.accept(i);
+        }
+        long thread = Thread.currentThread().getId();
+        long first = THREADS.getThreadAllocatedBytes(thread);
+        long second = THREADS.getThreadAllocatedBytes(thread);
+        long overhead = second - first;
+        long before = THREADS.getThreadAllocatedBytes(thread);
+        for (int i = WARM_UP_REPETITIONS; i < (WARM_UP_REPETITIONS + REPETITIONS); i++) {
+            operation.accept(i);
+        }
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - before - overhead;
+        return Math.max(0, allocated);
+    }
+
+    private static Game[] games(Shape... shapes) {
+        Game[] games = new Game[WARM_UP_REPETITIONS + REPETITIONS];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = gameThatCreates(shapes);
+        }
+        return games;
+    }
+
+    /*
+     * Two Is on the bottom two rows each:
+     *      |oooooooo  |
+     *      |oooooooo  |
+     */
+    private static void fillBottomRowsBarRightColumns(Game game) {
+        for (int i = 0; i < 4; i++) {
+            if ((i % 2) == 0) {
+                for (int left = 0; left < 3; left++) {
+                    game.moveActiveTetrominoLeft();
+                }
+            } else {
+                game.moveActiveTetrominoRight();
+            }
+            game.dropActiveTetrominoDown();
+            game.activateNextTetromino();
+        }
+    }
+
+    /*
+     * Followed by an O to complete both rows
+     */
+    private static void completeBottomRows(Game game) {
+        for (int right = 0; right < 5; right++) {
+            game.moveActiveTetrominoRight();
+        }
+        game.dropActiveTetrominoDown();
+        game.activateNextTetromino();
+    }
+
+    private static Game gameThatCreates(final Shape...shapes) {
+        return new Game(new TetrominoFactory() {
+
+            private int index;
+
+            @Override
+            public Tetromino create() {
+                index = index % shapes.length;
+                return Tetromino.of(shapes[index++]);
+            }
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jetris.model.Block.Color;
+
+public class GameArenaTest {
+
+    @Test
+    public void shouldPlayTheSameGamesAsGameModel() throws Exception {
+        assertPlaysTheSameGamesAsGameModel(GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT);
+    }
+
+    @Test
+    public void shouldPlayTheSameGamesAsGameModelOnNarrowBoard() throws Exception {
+        assertPlaysTheSameGamesAsGameModel(Game.MIN_WIDTH, 6);
+    }
+
+    @Test
+    public void shouldPlayTheSameGamesAsGameModelOnBoardWiderThanAWord() throws Exception {
+        assertPlaysTheSameGamesAsGameModel(70, 8);
+    }
+
+    @Test
+    public void shouldEndGameOfNarrowestBoardOnceFull() throws Exception {
+        GameArena arena = new GameArena(1, Game.MIN_WIDTH, 6);
+        ArenaGame game = arena.game().at(0);
+        game.reset(1);
+        for (int i = 0; (i < 100) && !game.isEnded(); i++) {
+            game.drop();
+        }
+        assertThat(game.isEnded(), is(true));
+    }
+
+    @Test
+    public void shouldKeepGamesInSeparateSlots() throws Exception {
+        GameArena arena = new GameArena(3, GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT);
+        ArenaGame game = arena.game();
+        game.at(0).reset(1);
+        game.at(2).reset(1);
+        game.at(0).drop();
+        assertThat(game.at(0).pieces(), is(1));
+        assertThat(game.at(2).pieces(), is(0));
+        assertThat(game.at(1).state(), is(GameModel.GameState.INITIAL));
+        assertThat(game.at(1).moveDown(), is(false));
+    }
+
+    @Test
+    public void shouldClearBoardWhenReset() throws Exception {
+        GameArena arena = new GameArena(1, GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT);
+        ArenaGame game = arena.game();
+        game.reset(7);
+        while (!game.isEnded()) {
+            game.drop();
+        }
+        game.reset(7);
+        assertThat(game.score(), is(0));
+        assertThat(game.pieces(), is(0));
+        assertThat(game.colorAt(4, GameModel.DEFAULT_HEIGHT - 1), is(nullValue(Color.class)));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectSlotBeyondCapacity() throws Exception {
+        new GameArena(2, GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT).game().at(2);
+    }
+
+    private static void assertPlaysTheSameGamesAsGameModel(int width, int height) {
+        Random random = new Random(width * height);
+        GameArena arena = new GameArena(8, width, height);
+        ArenaGame game = arena.game();
+        for (int slot = 0; slot < arena.capacity(); slot++) {
+            long seed = random.nextLong();
+            GameModel model = new GameModel(width, height);
+            model.start(new SeededTetrominoFactory(seed));
+            game.at(slot).reset(seed);
+            assertSameGame(game, model);
+            for (int step = 0; (step < 5000) && !game.isEnded(); step++) {
+                switch (random.nextInt(6)) {
+                  case 0: assertThat(game.moveLeft(), is(model.moveActiveTetrominoLeft())); break;
+                  case 1: assertThat(game.moveRight(), is(model.moveActiveTetrominoRight())); break;
+                  case 2: assertThat(game.moveDown(), is(model.moveActiveTetrominoDown())); break;
+                  case 3: assertThat(game.rotateLeft(), is(model.rotateActiveTetrominoLeft())); break;
+                  case 4: assertThat(game.rotateRight(), is(model.rotateActiveTetrominoRight())); break;
+                  default: assertThat(game.drop(), is(model.dropActiveTetrominoDown()));
+                }
+                assertSameGame(game, model);
+            }
+        }
+    }
+
+    private static void assertSameGame(ArenaGame game, GameModel model) {
+        assertThat(game.state(), is(model.state()));
+        assertThat(game.score(), is(model.score()));
+        assertThat(game.lines(), is(model.lines()));
+        assertThat(game.level(), is(model.level()));
+        assertThat(game.pieces(), is(model.pieces()));
+        for (int linesCleared = 1; linesCleared <= 4; linesCleared++) {
+            assertThat(game.clears(linesCleared), is(model.clears(linesCleared)));
+        }
+        assertThat(board(game.blocks()), is(board(model.blocks())));
+        assertThat(game.nextTetromino(), is(model.nextTetromino()));
+    }
+
+    /*
+     * A new tetromino may be placed over fixed blocks, in which case the
+     * arena keeps only the colour of the last block in each position
+     */
+    private static Map<List<Integer>, Color> board(List<Block> blocks) {
+        Map<List<Integer>, Color> board = new HashMap<>();
+        for (Block block : blocks) {
+            board.put(Arrays.asList(block.x(), block.y()), block.color());
+        }
+        return board;
+    }
+}
@@ -9,9 +9,13 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import java.lang.management.ManagementFactory;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
@@ -141,6 +145,32 @@ public class GameControllerTest {
         assertThat(clock.isStarted(), is(false));
     }
 
+    @Test
+    public void shouldCountCommandsAndTicksInMetrics() throws Exception {
+        startGame().moveLeft().moveLeft().fireScheduler().dropUntilGamesEnds();
+        GameControllerMXBean metrics = gameController.metrics();
+        assertThat(metrics.getCommandsProcessed().get("START"), is(1L));
+        assertThat(metrics.getCommandsProcessed().get("MOVE_LEFT"), is(2L));
+        assertThat(metrics.getGravityTicks(), is(1L));
+        assertThat(metrics.getPiecesLocked() > 0, is(true));
+        assertThat(metrics.getState(), is("ENDED"));
+        assertThat(metrics.getClockTicks(), is(-1L));
+    }
+
+    @Test
+    public void shouldRegisterMetricsWithPlatformMBeanServer() throws Exception {
+        ObjectName name = gameController.registerMBean();
+        try {
+            startGame();
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertThat(server.getAttribute(name, "State"), is((Object) "ACTIVE"));
+            assertThat(server.getAttribute(name, "ListenerInvocations"), is((Object) 1L));
+        } finally {
+            gameController.unregisterMBean();
+        }
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name), is(false));
+    }
+
     private GameControllerTest fireScheduler() {
         clock.fire();
         return this;
@@ -0,0 +1,63 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class GameEnvironmentTest {
+
+    private final GameEnvironment environment = new GameEnvironment(GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, 1000);
+
+    @Test
+    public void shouldObserveActiveTetrominoOnEmptyBoardOnceReset() throws Exception {
+        byte[] observation = environment.reset(1);
+        assertThat(observation.length, is(environment.observationSize()));
+        assertThat(count(observation, GameEnvironment.ACTIVE) > 0, is(true));
+        assertThat(count(observation, GameEnvironment.FIXED), is(0));
+    }
+
+    @Test
+    public void shouldRewardPointsScoredByStep() throws Exception {
+        environment.reset(1);
+        GameEnvironment.Step step = environment.step(Action.DROP);
+        assertThat(step.reward(), is(environment.model().score()));
+        assertThat(step.reward() > 0, is(true));
+        assertThat(count(step.observation(), GameEnvironment.FIXED), is(4));
+        assertThat(step.isDone(), is(false));
+    }
+
+    @Test
+    public void shouldBeDoneWhenGameEnds() throws Exception {
+        environment.reset(1);
+        GameEnvironment.Step step;
+        do {
+            step = environment.step(Action.DROP);
+        } while (!step.isDone());
+        assertThat(environment.model().state(), is(GameModel.GameState.ENDED));
+    }
+
+    @Test
+    public void shouldBeDoneAfterMaximumSteps() throws Exception {
+        GameEnvironment limited = new GameEnvironment(GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, 3);
+        limited.reset(1);
+        assertThat(limited.step(Action.LEFT).isDone(), is(false));
+        assertThat(limited.step(Action.RIGHT).isDone(), is(false));
+        assertThat(limited.step(Action.LEFT).isDone(), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectStepBeforeReset() throws Exception {
+        environment.step(Action.DROP);
+    }
+
+    private static int count(byte[] observation, byte cell) {
+        int count = 0;
+        for (byte value : observation) {
+            if (value == cell) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
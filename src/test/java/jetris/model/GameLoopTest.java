@@ -0,0 +1,83 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class GameLoopTest {
+
+    // 100 updates per second, so a level 1 gravity interval is 100 steps
+    private final GameLoop loop = new GameLoop(100);
+
+    private final AtomicInteger ticks = new AtomicInteger();
+
+    private final GameModel gameContext = new GameModel() {
+        {
+            start();
+        }
+    };
+
+    @Test
+    public void shouldTickOnFirstStepAndThenEveryGravityInterval() throws Exception {
+        loop.start(gameContext, () -> ticks.incrementAndGet());
+        update(1);
+        assertThat(ticks.get(), is(1));
+        update(99);
+        assertThat(ticks.get(), is(1));
+        update(1);
+        assertThat(ticks.get(), is(2));
+        assertThat(loop.updates(), is(101L));
+    }
+
+    @Test
+    public void shouldNotTickWhilePaused() throws Exception {
+        loop.start(gameContext, () -> ticks.incrementAndGet());
+        update(50);
+        loop.pause();
+        update(500);
+        loop.resume();
+        update(50);
+        assertThat(ticks.get(), is(1));
+        update(1);
+        assertThat(ticks.get(), is(2));
+    }
+
+    @Test
+    public void shouldExecuteCommandsBeforeTickInSubmissionOrder() throws Exception {
+        List<String> executed = new ArrayList<>();
+        loop.start(gameContext, () -> executed.add("tick"));
+        loop.execute(() -> executed.add("first"));
+        loop.execute(() -> executed.add("second"));
+        assertThat(executed.isEmpty(), is(true));
+        update(1);
+        assertThat(executed.toString(), is("[first, second, tick]"));
+    }
+
+    @Test
+    public void shouldExecuteCommandsOnLoopThread() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        loop.begin();
+        try {
+            loop.execute(() -> {
+                assertThat(Thread.currentThread().getName(), is("game-loop"));
+                latch.countDown();
+            });
+            assertThat(latch.await(1, TimeUnit.SECONDS), is(true));
+        } finally {
+            loop.shutdown();
+        }
+    }
+
+    private void update(int steps) {
+        for (int i = 0; i < steps; i++) {
+            loop.update();
+        }
+    }
+}
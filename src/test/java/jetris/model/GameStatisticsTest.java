@@ -0,0 +1,52 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import jetris.model.GameModel.GameState;
+
+public class GameStatisticsTest {
+
+    private final List<GameModel> games = IntStream.range(0, 200)
+                                                   .mapToObj(i -> playUntilEnded())
+                                                   .collect(Collectors.toList());
+
+    @Test
+    public void shouldRecordOutcomeOfEachGame() throws Exception {
+        GameStatistics statistics = new GameStatistics();
+        games.forEach(statistics::record);
+        assertThat(statistics.games(), is(200L));
+        assertThat(statistics.scores().max(), is((long) games.stream().mapToInt(GameModel::score).max().getAsInt()));
+        assertThat(statistics.pieces().min(), is((long) games.stream().mapToInt(GameModel::pieces).min().getAsInt()));
+        assertThat(statistics.levels().max(), is(1L));
+    }
+
+    @Test
+    public void shouldCollectParallelStreamToSameStatisticsAsSequential() throws Exception {
+        GameStatistics sequential = new GameStatistics();
+        games.forEach(sequential::record);
+        GameStatistics parallel = games.parallelStream().collect(GameStatistics.collector());
+        assertThat(parallel.games(), is(sequential.games()));
+        assertThat(parallel.scores().mean(), is(sequential.scores().mean()));
+        assertThat(parallel.scores().percentile(90), is(sequential.scores().percentile(90)));
+        assertThat(parallel.pieces().percentile(50), is(sequential.pieces().percentile(50)));
+        for (int linesCleared = 1; linesCleared <= 4; linesCleared++) {
+            assertThat(parallel.clears(linesCleared), is(sequential.clears(linesCleared)));
+        }
+    }
+
+    private static GameModel playUntilEnded() {
+        GameModel model = new GameModel();
+        model.start();
+        while (model.state() != GameState.ENDED) {
+            model.dropActiveTetrominoDown();
+        }
+        return model;
+    }
+}
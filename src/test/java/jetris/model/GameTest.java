@@ -473,6 +473,85 @@ public class GameTest {
         assertThat(game.blocks().size(), is(14));
     }
 
+    @Test
+    public void shouldCountClearsByNumberOfLines() throws Exception {
+        game = gameThatCreates(Shape.I, Shape.I, Shape.I, Shape.I, Shape.O);
+        completeLines(4);
+        assertThat(game.clears(1), is(0));
+        assertThat(game.clears(2), is(2));
+    }
+
+    @Test
+    public void shouldCentreTetrominoOnWideBoard() throws Exception {
+        game = gameThatCreates(80, 17, Shape.I);
+        assertThat(leftMostBlock().x(), is(38));
+        moveActiveTetrominoRightBy(50);
+        assertThat(rightMostBlock().x(), is(79));
+    }
+
+    @Test
+    public void shouldCompleteLineOfWideBoard() throws Exception {
+        game = gameThatCreates(80, 5, Shape.I);
+        for (int left = 0; left < 80; left += 4) {
+            moveActiveTetrominoLeftBy(38 - left);
+            moveActiveTetrominoRightBy(left - 38);
+            dropAndActivateNextTetromino();
+        }
+        assertThat(game.lines(), is(1));
+        assertThat(game.blocks().size(), is(4));
+    }
+
+    @Test
+    public void shouldPlayOnIndependentlyOnceCopied() throws Exception {
+        completeLine();
+        moveActiveTetrominoLeftBy(2);
+        int pieces = game.pieces();
+        Game copy = gameThatCreates(Shape.I, Shape.O);
+        copy.copyFrom(game);
+        assertThat(copy.blocks(), is(game.blocks()));
+        assertThat(copy.lines(), is(1));
+        assertThat(copy.score(), is(game.score()));
+        assertThat(copy.feature(Feature.HEIGHT), is(game.feature(Feature.HEIGHT)));
+
+        copy.dropActiveTetrominoDown();
+        copy.activateNextTetromino();
+        assertThat(copy.blocks().size(), is(game.blocks().size() + 4));
+        assertThat(copy.feature(Feature.HEIGHT), is(game.feature(Feature.HEIGHT) + 4));
+        assertThat(game.pieces(), is(pieces));
+    }
+
+    @Test
+    public void shouldEndGameOfNarrowestBoardOnceFull() throws Exception {
+        // three Os stacked in the two left most columns fill them
+        game = gameThatCreates(Game.MIN_WIDTH, 6, Shape.O);
+        game.dropActiveTetrominoDown();
+        assertThat(game.activateNextTetromino(), is(true));
+        game.dropActiveTetrominoDown();
+        assertThat(game.activateNextTetromino(), is(true));
+        game.dropActiveTetrominoDown();
+        assertThat(game.activateNextTetromino(), is(false));
+        assertThat(game.pieces(), is(3));
+    }
+
+    @Test
+    public void shouldCentreNewTetrominoPastBlockInLeftMostColumn() throws Exception {
+        // a J at the left of a shallow board blocks the left most column
+        // where the O is created, but not where it is centred:
+        //      |          |
+        //      |o         |
+        //      |ooo       |
+        game = gameThatCreates(GameModel.DEFAULT_WIDTH, 3, Shape.J, Shape.O);
+        moveActiveTetrominoLeftBy(GameModel.DEFAULT_WIDTH);
+        game.dropActiveTetrominoDown();
+        assertThat(game.activateNextTetromino(), is(true));
+        assertThat(game.activeTetromino().blocks().get(0).x(), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBoardNarrowerThanTetrominos() throws Exception {
+        gameThatCreates(3, 17, Shape.I);
+    }
+
     private void completeLines(int lines) {
         // Adds complete pairs of lines
         // initially 4 Is:
@@ -520,6 +599,10 @@ public class GameTest {
      * in the order given.
      */
     private static Game gameThatCreates(final Shape...shapes) {
+        return gameThatCreates(GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, shapes);
+    }
+
+    private static Game gameThatCreates(int width, int height, final Shape...shapes) {
         return new Game(new TetrominoFactory() {
 
             private int index;
@@ -529,7 +612,7 @@ public class GameTest {
                 index = index % shapes.length;
                 return new Tetromino(shapes[index++]);
             }
-        });
+        }, width, height, GameEvents.NONE);
     }
 
     private boolean moveActiveTetrominoDownBy(int count) {
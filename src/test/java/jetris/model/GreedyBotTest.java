@@ -0,0 +1,50 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import jetris.model.Tetromino.Shape;
+
+public class GreedyBotTest {
+
+    @Test
+    public void shouldClearLinesWithDefaultWeights() throws Exception {
+        Game game = new Game(new SeededTetrominoFactory(1), GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, GameEvents.NONE);
+        Bot bot = new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, game.width());
+        while ((game.pieces() < 200) && bot.move(game)) {
+            // playing
+        }
+        assertThat(game.pieces(), is(200));
+        assertThat(game.lines(), greaterThan(50));
+    }
+
+    @Test
+    public void shouldFillRowsWithOTetrominos() throws Exception {
+        Game game = new Game(() -> Tetromino.of(Shape.O), Game.MIN_WIDTH, GameModel.DEFAULT_HEIGHT, GameEvents.NONE);
+        Bot bot = new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, game.width());
+        for (int i = 0; i < 10; i++) {
+            assertThat(bot.move(game), is(true));
+        }
+        assertThat(game.lines(), is(10));
+    }
+
+    @Test
+    public void shouldPlayTheSameGameAgainOnceRestarted() throws Exception {
+        SeededTetrominoFactory factory = new SeededTetrominoFactory(3);
+        Game game = new Game(factory, GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, GameEvents.NONE);
+        Bot bot = new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, game.width());
+        for (int i = 0; i < 50; i++) {
+            bot.move(game);
+        }
+        int score = game.score();
+        factory.reseed(3);
+        game.restart();
+        for (int i = 0; i < 50; i++) {
+            bot.move(game);
+        }
+        assertThat(game.score(), is(score));
+    }
+}
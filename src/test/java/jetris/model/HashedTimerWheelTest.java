@@ -0,0 +1,59 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class HashedTimerWheelTest {
+
+    private final HashedTimerWheel wheel = new HashedTimerWheel(1, TimeUnit.MILLISECONDS, 8);
+
+    @After
+    public void shutdownWheel() {
+        wheel.shutdown();
+    }
+
+    @Test
+    public void shouldExecuteScheduledTask() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        HashedTimerWheel.Timeout timeout = wheel.schedule(() -> latch.countDown(), 5, TimeUnit.MILLISECONDS);
+        assertThat(latch.await(1, TimeUnit.SECONDS), is(true));
+        assertThat(timeout.isExpired(), is(true));
+    }
+
+    @Test
+    public void shouldNotExecuteCancelledTask() throws Exception {
+        AtomicBoolean isInvoked = new AtomicBoolean();
+        HashedTimerWheel.Timeout timeout = wheel.schedule(() -> isInvoked.set(true), 20, TimeUnit.MILLISECONDS);
+        assertThat(timeout.cancel(), is(true));
+        Thread.sleep(60);
+        assertThat(isInvoked.get(), is(false));
+        assertThat(timeout.isCancelled(), is(true));
+    }
+
+    @Test
+    public void shouldExecuteTasksWithDelaysBeyondOneRotationOfTheWheel() throws Exception {
+        // 8 buckets of 1ms, so a 30ms delay needs several rotations
+        long start = System.nanoTime();
+        CountDownLatch latch = new CountDownLatch(1);
+        wheel.schedule(() -> latch.countDown(), 30, TimeUnit.MILLISECONDS);
+        assertThat(latch.await(1, TimeUnit.SECONDS), is(true));
+        assertThat(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30), is(true));
+    }
+
+    @Test
+    public void shouldExecuteManyConcurrentTasks() throws Exception {
+        int count = 10000;
+        CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            wheel.schedule(() -> latch.countDown(), i % 50, TimeUnit.MILLISECONDS);
+        }
+        assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+    }
+}
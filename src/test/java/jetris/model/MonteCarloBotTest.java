@@ -0,0 +1,50 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class MonteCarloBotTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @After
+    public void shutdownPool() throws Exception {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void shouldClearLines() throws Exception {
+        Game game = new Game(new SeededTetrominoFactory(1), GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, GameEvents.NONE);
+        Bot bot = new MonteCarloBot(game.width(), game.height(), 0.005, pool);
+        while ((game.pieces() < 50) && bot.move(game)) {
+            // playing
+        }
+        assertThat(game.pieces(), is(50));
+        assertThat(game.lines(), greaterThan(10));
+    }
+
+    @Test
+    public void shouldSearchUntilBudgetIsSpent() throws Exception {
+        Game game = new Game(new SeededTetrominoFactory(2), GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, GameEvents.NONE);
+        MonteCarloBot bot = new MonteCarloBot(game.width(), game.height(), 0.05, pool);
+        long start = System.nanoTime();
+        assertThat(bot.move(game), is(true));
+        assertThat(System.nanoTime() - start, greaterThanOrEqualTo(bot.budget(game.level())));
+        assertThat(game.pieces(), is(1));
+    }
+
+    @Test
+    public void shouldSpendFractionOfGravityPeriod() throws Exception {
+        MonteCarloBot bot = new MonteCarloBot(GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, 0.5, pool);
+        assertThat(bot.budget(1), is(TimeUnit.MILLISECONDS.toNanos(500)));
+        assertThat(bot.budget(10), is(TimeUnit.MILLISECONDS.toNanos(140)));
+    }
+}
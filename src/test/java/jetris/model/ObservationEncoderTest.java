@@ -0,0 +1,92 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ObservationEncoderTest {
+
+    private static final int WIDTH = GameModel.DEFAULT_WIDTH;
+
+    private static final int HEIGHT = GameModel.DEFAULT_HEIGHT;
+
+    private static final int CELLS = WIDTH * HEIGHT;
+
+    private final ObservationEncoder encoder = new ObservationEncoder(WIDTH, HEIGHT);
+
+    @Test
+    public void shouldEncodeBoardActiveTetrominoNextShapeAndScalars() throws Exception {
+        GameModel model = startedModel(1);
+        model.dropActiveTetrominoDown();
+        FloatBuffer buffer = FloatBuffer.allocate(encoder.size());
+        encoder.encode(model, buffer, 0);
+        assertThat(sum(buffer, 0, CELLS), is(4f));
+        assertThat(sum(buffer, CELLS, 2 * CELLS), is(4f));
+        assertThat(sum(buffer, 2 * CELLS, (2 * CELLS) + 7), is(1f));
+        assertThat(buffer.get((2 * CELLS) + model.game().nextShape().ordinal()), is(1f));
+        assertThat(buffer.get((2 * CELLS) + 7), is((float) model.level()));
+        assertThat(buffer.get((2 * CELLS) + 8), is((float) model.lines()));
+        assertThat(buffer.get((2 * CELLS) + 9), is((float) model.score()));
+        assertThat(encoder.size(), is((2 * CELLS) + 10));
+    }
+
+    @Test
+    public void shouldEncodeBatchIntoDirectBufferAtOffset() throws Exception {
+        GameModel first = startedModel(1);
+        GameModel second = startedModel(2);
+        second.dropActiveTetrominoDown();
+        FloatBuffer heap = FloatBuffer.allocate(2 * encoder.size());
+        encoder.encode(Arrays.asList(first, second), heap, 0);
+        ByteBuffer direct = ByteBuffer.allocateDirect((3 + (2 * encoder.size())) * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        encoder.encode(Arrays.asList(first, second), direct, 3 * Float.BYTES);
+        for (int i = 0; i < (2 * encoder.size()); i++) {
+            assertThat(direct.getFloat((3 + i) * Float.BYTES), is(heap.get(i)));
+        }
+    }
+
+    @Test
+    public void shouldEncodeArenaGamesAsModels() throws Exception {
+        VectorGameEnvironment environments = new VectorGameEnvironment(3, WIDTH, HEIGHT, 100, 1);
+        int[] drops = new int[3];
+        Arrays.fill(drops, Action.DROP.ordinal());
+        environments.step(drops);
+        FloatBuffer encoded = FloatBuffer.allocate(3 * encoder.size());
+        environments.encode(encoder, encoded, 0);
+        FloatBuffer expected = FloatBuffer.allocate(encoder.size());
+        for (int i = 0; i < 3; i++) {
+            GameModel model = startedModel(VectorGameEnvironment.seedOf(1, i, 0));
+            model.dropActiveTetrominoDown();
+            encoder.encode(model, expected, 0);
+            for (int j = 0; j < encoder.size(); j++) {
+                assertThat(encoded.get((i * encoder.size()) + j), is(expected.get(j)));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectGameOfOtherSize() throws Exception {
+        GameModel model = new GameModel(12, HEIGHT);
+        model.start();
+        encoder.encode(model, FloatBuffer.allocate(1000), 0);
+    }
+
+    private static GameModel startedModel(long seed) {
+        GameModel model = new GameModel();
+        model.start(new SeededTetrominoFactory(seed));
+        return model;
+    }
+
+    private static float sum(FloatBuffer buffer, int from, int to) {
+        float sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += buffer.get(i);
+        }
+        return sum;
+    }
+}
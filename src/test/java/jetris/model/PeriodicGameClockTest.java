@@ -1,10 +1,16 @@
 package jetris.model;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertThat;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.After;
 import org.junit.Test;
 
 public class PeriodicGameClockTest {
@@ -17,6 +23,11 @@ public class PeriodicGameClockTest {
         }
     };
 
+    @After
+    public void stopScheduler() {
+        scheduler.stop();
+    }
+
     @Test
     public void shouldStartScheduler() throws Exception {
         final AtomicBoolean isInvoked = new AtomicBoolean();
@@ -30,4 +41,60 @@ public class PeriodicGameClockTest {
         assertThat(isInvoked.get(), is(true));
     }
 
+    @Test
+    public void shouldNotTickWhilePaused() throws Exception {
+        final AtomicInteger ticks = new AtomicInteger();
+        scheduler.start(gameContext, () -> ticks.incrementAndGet());
+        Thread.sleep(40);
+        scheduler.pause();
+        Thread.sleep(1100);
+        assertThat(ticks.get(), is(1));
+
+        scheduler.resume();
+        Thread.sleep(1100);
+        assertThat(ticks.get(), is(2));
+    }
+
+    @Test
+    public void shouldShortenPeriodOnceLevelRises() throws Exception {
+        final AtomicInteger level = new AtomicInteger(9);
+        GameModel levelling = new GameModel() {
+            {
+                start();
+            }
+
+            @Override
+            public int level() {
+                return level.get();
+            }
+        };
+        final long[] ticks = new long[3];
+        final CountDownLatch ticked = new CountDownLatch(ticks.length);
+        scheduler.start(levelling, () -> {
+            int tick = ticks.length - (int) ticked.getCount();
+            if (tick < ticks.length) {
+                ticks[tick] = System.nanoTime();
+                if (tick == 1) {
+                    level.set(10);
+                }
+                ticked.countDown();
+            }
+        });
+        assertThat(ticked.await(2, TimeUnit.SECONDS), is(true));
+        assertThat(millisBetween(ticks[0], ticks[1]), closeTo(Gravity.period(9), 40));
+        assertThat(millisBetween(ticks[1], ticks[2]), closeTo(Gravity.period(10), 40));
+    }
+
+    @Test
+    public void shouldRecordTickJitter() throws Exception {
+        scheduler.start(gameContext, () -> {});
+        Thread.sleep(40);
+        TickStatistics statistics = scheduler.tickStatistics();
+        assertThat(statistics.ticks(), is(1L));
+        assertThat(statistics.maxJitter(TimeUnit.MILLISECONDS), lessThan(40.0));
+    }
+
+    private static double millisBetween(long from, long to) {
+        return (double) (to - from) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
 }
@@ -0,0 +1,86 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import jetris.model.Tetromino.Shape;
+
+public class PlacementGeneratorTest {
+
+    @Test
+    public void shouldPlaceEachRotationAtEachColumnOfEmptyBoard() throws Exception {
+        Game game = new Game(() -> Tetromino.of(Shape.T));
+        PlacementGenerator generator = new PlacementGenerator(game.width());
+        // 8 columns for the two horizontal rotations, 9 for the two vertical
+        assertThat(generator.generate(game), is(8 + 9 + 8 + 9));
+    }
+
+    @Test
+    public void shouldPlaceOAtEachColumnOnceAsItDoesNotRotate() throws Exception {
+        Game game = new Game(() -> Tetromino.of(Shape.O));
+        PlacementGenerator generator = new PlacementGenerator(game.width());
+        assertThat(generator.generate(game), is(9));
+        for (int i = 0; i < 9; i++) {
+            assertThat(generator.placement(i).y(), is(game.height() - 2));
+        }
+    }
+
+    @Test
+    public void shouldFindSamePlacementsAsMovingAndDroppingTheTetromino() throws Exception {
+        for (Shape shape : Shape.values()) {
+            for (int width : new int[] { 4, 10, 70 }) {
+                Game game = new Game(new SeededTetrominoFactory(shape.ordinal()), width, 12, GameEvents.NONE);
+                PlacementGenerator generator = new PlacementGenerator(width);
+                for (int piece = 0; piece < 10; piece++) {
+                    assertThat(placements(generator, game), is(placementsByMoving(game)));
+                    game.dropActiveTetrominoDown();
+                    game.activateNextTetromino();
+                }
+            }
+        }
+    }
+
+    private static Set<Tetromino> placements(PlacementGenerator generator, Game game) {
+        Set<Tetromino> placements = new HashSet<>();
+        for (int i = 0; i < generator.generate(game); i++) {
+            placements.add(generator.placement(i));
+        }
+        return placements;
+    }
+
+    /*
+     * Rotates, moves as far as possible each way and drops the active
+     * tetromino in every combination
+     */
+    private static Set<Tetromino> placementsByMoving(Game game) {
+        Set<Tetromino> placements = new HashSet<>();
+        Tetromino rotated = game.activeTetromino();
+        for (int rotation = 0; rotation < Tetromino.rotations(rotated.shape()); rotation++) {
+            if (rotation > 0) {
+                rotated = rotated.rotateRight();
+            }
+            if (!game.isValidTetrominoPosition(rotated)) {
+                break;
+            }
+            for (Tetromino moved = rotated; game.isValidTetrominoPosition(moved); moved = moved.moveLeft()) {
+                placements.add(dropped(game, moved));
+            }
+            for (Tetromino moved = rotated; game.isValidTetrominoPosition(moved); moved = moved.moveRight()) {
+                placements.add(dropped(game, moved));
+            }
+        }
+        return placements;
+    }
+
+    private static Tetromino dropped(Game game, Tetromino tetromino) {
+        while (game.isValidTetrominoPosition(tetromino.moveDown())) {
+            tetromino = tetromino.moveDown();
+        }
+        return tetromino;
+    }
+}
@@ -7,6 +7,8 @@ import static jetris.model.Block.Color.MAGENTA;
 import static jetris.model.Block.Color.RED;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import org.hamcrest.BaseMatcher;
@@ -186,6 +188,16 @@ public class TetrominoTest {
 
     }
 
+    @Test
+    public void shouldShareOnlyPlacementsWithinCachedSpan() throws Exception {
+        Tetromino tetromino = Tetromino.of(Tetromino.Shape.T);
+        assertThat(tetromino.at(20, 30), is(sameInstance(tetromino.at(20, 30))));
+        Tetromino beyond = tetromino.at(1000, 2000);
+        assertThat(beyond.x(), is(1000));
+        assertThat(beyond.y(), is(2000));
+        assertThat(beyond, is(not(sameInstance(tetromino.at(1000, 2000)))));
+    }
+
     private static Matcher<Tetromino> hasColor(Color color) {
         return new BaseMatcher<Tetromino>() {
 
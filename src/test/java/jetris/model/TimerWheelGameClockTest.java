@@ -0,0 +1,70 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TimerWheelGameClockTest {
+
+    private final HashedTimerWheel wheel = new HashedTimerWheel(1, TimeUnit.MILLISECONDS, 64);
+
+    private final TimerWheelGameClock clock = new TimerWheelGameClock(wheel);
+
+    private final AtomicInteger ticks = new AtomicInteger();
+
+    private final GameModel gameContext = new GameModel() {
+        {
+            start();
+        }
+    };
+
+    @After
+    public void shutdownWheel() {
+        wheel.shutdown();
+    }
+
+    @Test
+    public void shouldTickImmediatelyWhenStarted() throws Exception {
+        clock.start(gameContext, () -> ticks.incrementAndGet());
+        Thread.sleep(40);
+        assertThat(ticks.get(), is(1));
+    }
+
+    @Test
+    public void shouldNotTickWhenStopped() throws Exception {
+        clock.start(gameContext, () -> ticks.incrementAndGet());
+        Thread.sleep(40);
+        clock.stop();
+        clock.resume();
+        Thread.sleep(1100);
+        assertThat(ticks.get(), is(1));
+    }
+
+    @Test
+    public void shouldNotTickWhenPaused() throws Exception {
+        clock.start(gameContext, () -> ticks.incrementAndGet());
+        Thread.sleep(40);
+        clock.pause();
+        Thread.sleep(1100);
+        assertThat(ticks.get(), is(1));
+
+        clock.resume();
+        Thread.sleep(1100);
+        assertThat(ticks.get(), is(2));
+    }
+
+    @Test
+    public void shouldStopFromWithinTick() throws Exception {
+        clock.start(gameContext, () -> {
+            ticks.incrementAndGet();
+            clock.stop();
+        });
+        Thread.sleep(1100);
+        assertThat(ticks.get(), is(1));
+    }
+}
@@ -0,0 +1,95 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jetris.model.Tournament.Standing;
+
+public class TournamentTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<String, Supplier<Bot>> bots = new LinkedHashMap<>();
+
+    @Test
+    public void shouldRankBotsByLinesCleared() throws Exception {
+        bots.put("dropping", () -> game -> {
+            game.dropActiveTetrominoDown();
+            return game.activateNextTetromino();
+        });
+        bots.put("greedy", () -> new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, 6));
+        List<Standing> standings = new Tournament(bots, 6, 10, 20, 100, 1).run(results());
+        assertThat(standings.size(), is(2));
+        assertThat(standings.get(0).name(), is("greedy"));
+        assertThat(standings.get(0).games(), is(20));
+        assertThat(standings.get(0).mean(), greaterThan(standings.get(1).mean()));
+        assertThat(standings.get(0).isAheadOfNext(), is(true));
+        assertThat(standings.get(1).isAheadOfNext(), is(false));
+    }
+
+    @Test
+    public void shouldPlayBotsTheSameGames() throws Exception {
+        bots.put("first", () -> new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, 6));
+        bots.put("second", () -> new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, 6));
+        List<Standing> standings = new Tournament(bots, 6, 10, 20, 100, 1).run(results());
+        assertThat(standings.get(0).mean(), is(standings.get(1).mean()));
+        assertThat(standings.get(0).isAheadOfNext(), is(false));
+    }
+
+    @Test
+    public void shouldRankFromResultsFile() throws Exception {
+        bots.put("greedy", () -> new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, 6));
+        Path results = results();
+        List<Standing> standings = new Tournament(bots, 6, 10, 10, 100, 1).run(results);
+        assertThat(Tournament.rank(results), is(standings));
+        assertThat(Files.size(results), is(4L + 4 + 2 + "greedy".length() + (10 * 12)));
+    }
+
+    @Test
+    public void shouldRankGamesPlayedBeforeResultsFileWasCutShort() throws Exception {
+        bots.put("greedy", () -> new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, 6));
+        Path results = results();
+        new Tournament(bots, 6, 10, 10, 100, 1).run(results);
+        long header = 4 + 4 + 2 + "greedy".length();
+        try (FileChannel channel = FileChannel.open(results, StandardOpenOption.WRITE)) {
+            channel.truncate(header + 12 + 6);
+        }
+        List<Standing> standings = Tournament.rank(results);
+        assertThat(standings.get(0).games(), is(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTournamentOfNoGames() throws Exception {
+        bots.put("greedy", () -> new GreedyBot(GreedyBot.DEFAULT_WEIGHTS, 6));
+        new Tournament(bots, 6, 10, 0, 100, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownOption() throws Exception {
+        Tournament.main(new String[] { "--game=10" });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBotWithWrongNumberOfWeights() throws Exception {
+        Tournament.main(new String[] { "default=0.76,-0.51,-0.36" });
+    }
+
+    private Path results() {
+        return folder.getRoot().toPath().resolve("results.bin");
+    }
+}
@@ -0,0 +1,92 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class VectorGameEnvironmentTest {
+
+    private static final int SIZE = (2 * VectorGameEnvironment.SHARD_SIZE) + 10;
+
+    private final VectorGameEnvironment environments = new VectorGameEnvironment(SIZE, GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, 200, 1);
+
+    @Test
+    public void shouldStepEachEnvironmentAsASingleEnvironment() throws Exception {
+        GameEnvironment[] singles = new GameEnvironment[SIZE];
+        int[] episodes = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            singles[i] = new GameEnvironment(GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, 200);
+            assertThat(singles[i].reset(VectorGameEnvironment.seedOf(1, i, 0)), is(observation(i)));
+        }
+        Random random = new Random(1);
+        int[] actions = new int[SIZE];
+        for (int step = 0; step < 150; step++) {
+            for (int i = 0; i < SIZE; i++) {
+                actions[i] = random.nextInt(Action.values().length);
+            }
+            environments.step(actions);
+            for (int i = 0; i < SIZE; i++) {
+                GameEnvironment.Step expected = singles[i].step(Action.values()[actions[i]]);
+                assertThat(environments.rewards()[i], is(expected.reward()));
+                assertThat(environments.dones()[i], is(expected.isDone()));
+                byte[] observation = expected.isDone()
+                        ? singles[i].reset(VectorGameEnvironment.seedOf(1, i, ++episodes[i]))
+                        : expected.observation();
+                assertThat(observation(i), is(observation));
+            }
+        }
+    }
+
+    @Test
+    public void shouldResetEnvironmentsThatAreDone() throws Exception {
+        int[] drops = new int[SIZE];
+        Arrays.fill(drops, Action.DROP.ordinal());
+        boolean[] reset = new boolean[SIZE];
+        for (int step = 0; step < 100; step++) {
+            environments.step(drops);
+            for (int i = 0; i < SIZE; i++) {
+                if (environments.dones()[i]) {
+                    reset[i] = true;
+                    assertThat(count(observation(i), GameEnvironment.FIXED), is(0));
+                }
+            }
+        }
+        for (int i = 0; i < SIZE; i++) {
+            assertThat(reset[i], is(true));
+        }
+    }
+
+    @Test
+    public void shouldStepShardsIndependently() throws Exception {
+        int[] drops = new int[SIZE];
+        Arrays.fill(drops, Action.DROP.ordinal());
+        environments.step(drops, 1);
+        assertThat(environments.rewards()[0], is(0));
+        assertThat(environments.rewards()[VectorGameEnvironment.SHARD_SIZE] > 0, is(true));
+        assertThat(environments.shards(), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNoEnvironments() throws Exception {
+        new VectorGameEnvironment(0, GameModel.DEFAULT_WIDTH, GameModel.DEFAULT_HEIGHT, 200, 1);
+    }
+
+    private byte[] observation(int environment) {
+        int size = environments.observationSize();
+        return Arrays.copyOfRange(environments.observations(), environment * size, (environment + 1) * size);
+    }
+
+    private static int count(byte[] observation, byte cell) {
+        int count = 0;
+        for (byte value : observation) {
+            if (value == cell) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,83 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import jetris.model.GameModel.GameState;
+
+public class VirtualGameClockTest {
+
+    private final VirtualGameClock clock = new VirtualGameClock();
+
+    private final List<Long> ticks = new ArrayList<>();
+
+    private final GameModel gameContext = new GameModel() {
+        {
+            start();
+        }
+    };
+
+    @Test
+    public void shouldTickAtGravityIntervalOfVirtualTime() throws Exception {
+        clock.start(gameContext, () -> ticks.add(clock.currentTime()));
+        clock.advanceBy(2500);
+        assertThat(ticks, is(listOf(0, 1000, 2000)));
+        assertThat(clock.currentTime(), is(2500L));
+    }
+
+    @Test
+    public void shouldNotTickWhilePaused() throws Exception {
+        clock.start(gameContext, () -> ticks.add(clock.currentTime()));
+        clock.advanceBy(400);
+        clock.pause();
+        clock.advanceBy(5000);
+        clock.resume();
+        clock.advanceBy(600);
+        assertThat(ticks, is(listOf(0, 6000)));
+    }
+
+    @Test
+    public void shouldExecuteScheduledActionsInTimeOrder() throws Exception {
+        clock.schedule(300, () -> ticks.add(clock.currentTime()));
+        clock.schedule(100, () -> ticks.add(clock.currentTime()));
+        clock.advanceBy(200);
+        assertThat(ticks, is(listOf(100)));
+        clock.run();
+        assertThat(ticks, is(listOf(100, 300)));
+    }
+
+    @Test
+    public void shouldPlayGameToCompletionFasterThanRealTime() throws Exception {
+        GameModelListener listener = model -> {};
+        GameController controller = new GameController(listener, clock);
+        controller.startGame();
+        long start = System.nanoTime();
+        clock.run();
+        assertThat(clock.currentTime(), greaterThan(10000L));
+        assertThat(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(clock.currentTime()), is(true));
+    }
+
+    @Test
+    public void shouldPaceVirtualTimeBySpeedFactor() throws Exception {
+        VirtualGameClock tenTimesFaster = new VirtualGameClock(10);
+        long start = System.nanoTime();
+        tenTimesFaster.advanceBy(1000);
+        assertThat(System.nanoTime() - start, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    private static List<Long> listOf(long... times) {
+        List<Long> list = new ArrayList<>();
+        for (long time : times) {
+            list.add(time);
+        }
+        return list;
+    }
+}
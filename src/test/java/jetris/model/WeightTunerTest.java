@@ -0,0 +1,55 @@
+package jetris.model;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class WeightTunerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldFindWeightsThatClearLines() throws Exception {
+        WeightTuner tuner = new WeightTuner(6, 10, 10, 4, 100, 1, folder.getRoot().toPath().resolve("weights.txt"));
+        tuner.run(2);
+        assertThat(tuner.generation(), is(2));
+        assertThat(tuner.best().length, is(Feature.values().length));
+        assertThat(tuner.bestFitness(), greaterThan(0.0));
+        assertThat(tuner.generationsPerHour(), greaterThan(0.0));
+    }
+
+    @Test
+    public void shouldResumeFromCheckpoint() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("weights.txt");
+        WeightTuner tuner = new WeightTuner(6, 10, 10, 4, 100, 1, checkpoint);
+        tuner.run(2);
+        WeightTuner resumed = new WeightTuner(6, 10, 10, 4, 100, 1, checkpoint);
+        assertThat(resumed.generation(), is(2));
+        assertThat(resumed.best(), is(tuner.best()));
+        assertThat(resumed.bestFitness(), is(tuner.bestFitness()));
+        resumed.run(1);
+        assertThat(resumed.generation(), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCandidatesPlayingNoGames() throws Exception {
+        new WeightTuner(6, 10, 10, 0, 100, 1, folder.getRoot().toPath().resolve("weights.txt"));
+    }
+
+    @Test
+    public void shouldBreedTheSamePopulationFromTheSameSeed() throws Exception {
+        Path first = folder.getRoot().toPath().resolve("first.txt");
+        Path second = folder.getRoot().toPath().resolve("second.txt");
+        new WeightTuner(6, 10, 10, 4, 100, 7, first).run(2);
+        new WeightTuner(6, 10, 10, 4, 100, 7, second).run(2);
+        assertThat(Files.readAllLines(second), is(Files.readAllLines(first)));
+    }
+}
@@ -0,0 +1,72 @@
+package jetris.view;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import jetris.metrics.FrameMetrics;
+import jetris.metrics.InputLatencyTracer;
+import jetris.model.GameController;
+import jetris.model.GameModel;
+import jetris.model.VirtualGameClock;
+import jetris.view.GameView.GamePanel;
+import jetris.view.GameView.Rendering;
+
+public class FlightRecorderEventsTest {
+
+    private GameModel model;
+
+    private final GameController controller = new GameController(model -> this.model = model, new VirtualGameClock());
+
+    @BeforeClass
+    public static void runHeadless() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @Test
+    public void shouldRecordPassiveRepaint() throws Exception {
+        GamePanel panel = new GamePanel(new FrameMetrics(), new InputLatencyTracer());
+        controller.startGame();
+        panel.modelChanged(model);
+        BufferedImage image = new BufferedImage(GameRenderer.SIZE.width, GameRenderer.SIZE.height, BufferedImage.TYPE_INT_RGB);
+        List<RecordedEvent> repaints = record("jetris.Repaint", () -> {
+            Graphics graphics = image.createGraphics();
+            try {
+                panel.paintComponent(graphics);
+            } finally {
+                graphics.dispose();
+            }
+        });
+        assertThat(repaints.size(), is(1));
+        assertThat(repaints.get(0).getString("rendering"), is(Rendering.PASSIVE.name()));
+    }
+
+    private static List<RecordedEvent> record(String name, Runnable actions) throws Exception {
+        Path file = Files.createTempFile("jetris", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(name);
+            recording.start();
+            actions.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                                .filter(event -> event.getEventType().getName().equals(name))
+                                .collect(Collectors.toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package jetris.view;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jetris.model.GameController;
+import jetris.model.GameModel;
+import jetris.model.VirtualGameClock;
+
+public class GameSnapshotTest {
+
+    private final GameSnapshot snapshot = new GameSnapshot();
+
+    private GameModel model;
+
+    private final GameController controller = new GameController(model -> this.model = model, new VirtualGameClock());
+
+    @BeforeClass
+    public static void runHeadless() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @Test
+    public void shouldShowInitialStateAsText() throws Exception {
+        assertThat(snapshot.text(null).toString(), is("INITIAL\n"));
+    }
+
+    @Test
+    public void shouldShowBoardAndStatsAsText() throws Exception {
+        controller.startGame();
+        controller.dropDown();
+        String text = snapshot.text(model).toString();
+        String[] lines = text.split("\n");
+        assertThat(lines[0], is("ACTIVE score=" + model.score() + " level=1 lines=0"));
+        assertThat(lines.length, is(19));
+        assertThat(lines[1], containsString("|  next"));
+        assertThat(lines[17], not(containsString("|..........|")));
+        assertThat(lines[18], is("+----------+"));
+    }
+
+    @Test
+    public void shouldReuseTextAndImageBetweenSnapshots() throws Exception {
+        controller.startGame();
+        CharSequence text = snapshot.text(model);
+        BufferedImage image = snapshot.image(model);
+        controller.dropDown();
+        assertThat(snapshot.text(model), is(sameInstance(text)));
+        assertThat(snapshot.image(model), is(sameInstance(image)));
+    }
+
+    @Test
+    public void shouldRenderBoardToImage() throws Exception {
+        controller.startGame();
+        controller.dropDown();
+        BufferedImage image = snapshot.image(model);
+        assertThat(image.getWidth(), is(GameRenderer.SIZE.width));
+        // the bottom row of the board is occupied by the dropped tetromino
+        boolean isOccupied = false;
+        for (int x = GameRenderer.BOARD_REGION.x; x < GameRenderer.BOARD_REGION.getMaxX(); x++) {
+            int y = (int) GameRenderer.BOARD_REGION.getMaxY() - 12;
+            isOccupied |= (image.getRGB(x, y) & 0xFFFFFF) != (Color.BLACK.getRGB() & 0xFFFFFF);
+        }
+        assertThat(isOccupied, is(true));
+    }
+}